@@ -0,0 +1,48 @@
+package com.exec.asset.management;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without a web server for benchmarks of the service and persistence layers. The schema is
+ * created from the entity mappings on an in-memory H2 database, unless {@code -Dspring.datasource.url} and its
+ * credentials point the benchmark at another, empty database. Kafka is configured but never connected to, as the
+ * outbox relay is disabled.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param properties additional properties, as {@code name=value}.
+     * @return the started application.
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=benchmark",
+                "--spring.main.banner-mode=off",
+                "--spring.liquibase.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--debug=false",
+                "--logging.level.root=warn",
+                "--logging.level.com.exec.asset.management=warn",
+                "--asset.outbox.enabled=false",
+                "--asset.kafka.bootstrap.servers=localhost:9092",
+                "--asset.kafka.key.serializer=org.apache.kafka.common.serialization.StringSerializer",
+                "--asset.kafka.value.serializer=org.apache.kafka.common.serialization.ByteArraySerializer",
+                "--asset.kafka.topics.asset-promotion=asset.events.asset-promoted"));
+        if (System.getProperty("spring.datasource.url") == null) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        }
+        Arrays.stream(properties).map(property -> "--" + property).forEach(args::add);
+        return new SpringApplicationBuilder(AssetManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+}
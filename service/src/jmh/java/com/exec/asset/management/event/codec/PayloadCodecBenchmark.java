@@ -0,0 +1,54 @@
+package com.exec.asset.management.event.codec;
+
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+
+/**
+ * Compares the cost of encoding and decoding a promotion event payload with every codec. The size of the encoded
+ * payload, as it is sent, is reported next to the scores as {@code payloadBytes}.
+ */
+@State(Scope.Benchmark)
+public class PayloadCodecBenchmark {
+    @Param({"JSON", "SMILE", "CBOR"})
+    private PayloadCodec codec;
+    private AssetPromotionEventModel event;
+    private byte[] encodedEvent;
+
+    @Setup
+    public void setUp() {
+        event = AssetPromotionEventModel.builder().assetId(UUID.randomUUID()).parentId(UUID.randomUUID()).promoted(true).build();
+        encodedEvent = codec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize payloadSize) {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public AssetPromotionEventModel decode(PayloadSize payloadSize) {
+        return codec.decode(encodedEvent, AssetPromotionEventModel.class);
+    }
+
+    /**
+     * Counted as events, so JMH reports the size itself rather than a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+
+        @Setup
+        public void setUp(PayloadCodecBenchmark benchmark) {
+            payloadBytes = benchmark.encodedEvent.length;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.exec.asset.management.event.publisher;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.exec.asset.management.domain.messages.AssetAggregateEventEntity;
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.event.codec.PayloadCodec;
+import com.exec.asset.management.event.config.BaseKafkaConfiguration;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the allocations of building a promotion event record through a Spring {@link Message}, as events were sent
+ * before, with building the {@link ProducerRecord} directly.
+ */
+@State(Scope.Benchmark)
+public class KafkaRecordBenchmark {
+    private final MessagingMessageConverter messageConverter = new MessagingMessageConverter();
+    private KafkaMessagingSystemService kafkaMessagingSystemService;
+    private AssetAggregateEventEntity event;
+
+    @Setup
+    public void setUp() {
+        BaseKafkaConfiguration.Kafka kafkaProperties = new BaseKafkaConfiguration.Kafka();
+        kafkaProperties.setKafka(new Properties());
+        kafkaMessagingSystemService = new KafkaMessagingSystemService(new BaseKafkaConfiguration(kafkaProperties), new MultiTenantIdentifierResolver(),
+                UuidStrategy.TIME_ORDERED, new SimpleMeterRegistry());
+        UUID assetId = UUID.randomUUID();
+        UUID parentId = UUID.randomUUID();
+        event = AssetAggregateEventEntity.builder()
+                .eventId(UUID.randomUUID())
+                .eventName(AssetPromotionEventModel.CREATED_EVENT_NAME)
+                .msgSysTopic(AssetPromotionEventModel.TOPIC_NAME)
+                .msgSysHeaders(Map.of())
+                .assetId(assetId.toString())
+                .parentId(parentId.toString())
+                .tenantId("public")
+                .createdAt(new Date())
+                .payload(PayloadCodec.JSON.encode(AssetPromotionEventModel.builder().assetId(assetId).parentId(parentId).promoted(true).build()))
+                .build();
+    }
+
+    @Benchmark
+    public ProducerRecord<?, ?> viaMessage() {
+        AssetAggregateEventMessage<byte[]> message = AssetAggregateEventMessage.of(event);
+        Message<byte[]> springMessage = MessageBuilder.withPayload(message.getPayload())
+                .copyHeaders(event.getMsgSysHeaders())
+                .copyHeaders(message.getHeaders().toMap())
+                .setHeader(KafkaHeaders.TOPIC, event.getMsgSysTopic())
+                .build();
+        return messageConverter.fromMessage(springMessage, event.getMsgSysTopic());
+    }
+
+    @Benchmark
+    public ProducerRecord<String, byte[]> producerRecord() {
+        return kafkaMessagingSystemService.createRecord(event);
+    }
+}
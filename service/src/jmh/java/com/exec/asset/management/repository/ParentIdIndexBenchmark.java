@@ -0,0 +1,143 @@
+package com.exec.asset.management.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+/**
+ * Compares {@code findByParentId} on the assets table as tenant databases created from the entity mappings hold it,
+ * with string keys and no index on parent_id, and as the v1.3 migration leaves it, with native keys and an index on
+ * (parent_id, promoted). Each asset has up to ten children.
+ * <p/>
+ * The sizes of the table and of its other indexes are reported next to the score where the database reports them,
+ * which SQL Server does and the default in-memory H2 database does not, leaving them NaN. SQL Server is measured with
+ * {@code -Dbenchmark.jdbc.url}, {@code -Dbenchmark.jdbc.user}, {@code -Dbenchmark.jdbc.password} and
+ * {@code -p nativeKeyType=uniqueidentifier}.
+ */
+@State(Scope.Benchmark)
+public class ParentIdIndexBenchmark {
+    private static final int FAN_OUT = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"STRING_KEYS_WITHOUT_INDEX", "NATIVE_KEYS_WITH_INDEX"})
+    private Layout layout;
+    @Param("uuid")
+    private String nativeKeyType;
+    @Param("1000000")
+    private int assets;
+    private Connection connection;
+    private PreparedStatement findByParentId;
+    private List<String> ids;
+
+    public enum Layout {
+        STRING_KEYS_WITHOUT_INDEX,
+        NATIVE_KEYS_WITH_INDEX
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:parent-id-index"),
+                System.getProperty("benchmark.jdbc.user", "sa"), System.getProperty("benchmark.jdbc.password", ""));
+        String keyType = layout == Layout.NATIVE_KEYS_WITH_INDEX ? nativeKeyType : "varchar(36)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS parent_id_benchmark");
+            statement.execute("CREATE TABLE parent_id_benchmark (id " + keyType + " NOT NULL PRIMARY KEY, promoted bit NOT NULL, parent_id " + keyType
+                    + ", version bigint NOT NULL)");
+        }
+
+        ids = new ArrayList<>(assets);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO parent_id_benchmark (id, promoted, parent_id, version) VALUES (?, 0, ?, 0)")) {
+            for (int i = 0; i < assets; i++) {
+                String id = UuidStrategy.COMB.generate().toString();
+                ids.add(id);
+                insert.setString(1, id);
+                insert.setString(2, i == 0 ? null : ids.get((i - 1) / FAN_OUT));
+                insert.addBatch();
+                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        if (layout == Layout.NATIVE_KEYS_WITH_INDEX) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX ix_parent_id_benchmark_parent_id ON parent_id_benchmark (parent_id, promoted)");
+            }
+        }
+        findByParentId = connection.prepareStatement("SELECT id, promoted, parent_id, version FROM parent_id_benchmark WHERE parent_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        findByParentId.close();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE parent_id_benchmark");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int findByParentId(TableSizes tableSizes) throws SQLException {
+        findByParentId.setString(1, ids.get(ThreadLocalRandom.current().nextInt(assets)));
+        int children = 0;
+        try (ResultSet resultSet = findByParentId.executeQuery()) {
+            while (resultSet.next()) {
+                children++;
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Counted as events, so JMH reports the sizes themselves rather than rates. The table is its heap or clustered
+     * index, the indexes are all the others.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TableSizes {
+        public double tableKilobytes = Double.NaN;
+        public double indexKilobytes = Double.NaN;
+
+        @Setup
+        public void setUp(ParentIdIndexBenchmark benchmark) {
+            try (PreparedStatement sizes = benchmark.connection.prepareStatement("SELECT CASE WHEN s.index_id <= 1 THEN 0 ELSE 1 END,"
+                    + " SUM(s.used_page_count) * 8 FROM sys.dm_db_partition_stats s WHERE s.object_id = OBJECT_ID('parent_id_benchmark')"
+                    + " GROUP BY CASE WHEN s.index_id <= 1 THEN 0 ELSE 1 END")) {
+                try (ResultSet resultSet = sizes.executeQuery()) {
+                    indexKilobytes = 0;
+                    while (resultSet.next()) {
+                        if (resultSet.getInt(1) == 0) {
+                            tableKilobytes = resultSet.getLong(2);
+                        }
+                        else {
+                            indexKilobytes = resultSet.getLong(2);
+                        }
+                    }
+                }
+            }
+            catch (SQLException e) {
+                // The database does not report sizes.
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.exec.asset.management.service.hierarchy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+/**
+ * Compares the heap and the lookup cost of the hierarchy index with a {@code HashMap<UUID, List<UUID>>} of the same
+ * tree, each asset having up to ten children. The heap retained by each structure, as the growth of the used heap
+ * over building it, is reported next to the scores in bytes per asset.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AssetHierarchyIndexBenchmark {
+    private static final int FAN_OUT = 10;
+
+    @Param({"1000000", "10000000"})
+    private int assets;
+    private UUID[] ids;
+    private AssetHierarchyIndex index;
+    private Map<UUID, List<UUID>> childIdsByParentId;
+    private long indexBytes;
+    private long mapBytes;
+
+    @Setup
+    public void setUp() {
+        ids = new UUID[assets];
+        for (int i = 0; i < assets; i++) {
+            ids[i] = UuidStrategy.RANDOM.generate();
+        }
+
+        long heapBefore = usedHeap();
+        index = new AssetHierarchyIndex(assets);
+        for (int i = 0; i < assets; i++) {
+            index.put(ids[i], i == 0 ? null : ids[parentOf(i)], false);
+        }
+        indexBytes = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        // Copies of the ids, as a map read from the database would not share them with anything else.
+        childIdsByParentId = new HashMap<>();
+        for (int i = 1; i < assets; i++) {
+            childIdsByParentId.computeIfAbsent(copyOf(ids[parentOf(i)]), id -> new ArrayList<>()).add(copyOf(ids[i]));
+        }
+        mapBytes = usedHeap() - heapBefore;
+    }
+
+    @Benchmark
+    public List<UUID> indexChildIds(HeapPerAsset heapPerAsset) {
+        return index.getChildIds(randomId());
+    }
+
+    @Benchmark
+    public List<UUID> mapChildIds(HeapPerAsset heapPerAsset) {
+        return childIdsByParentId.getOrDefault(randomId(), List.of());
+    }
+
+    @Benchmark
+    public List<UUID> indexAncestorIds(HeapPerAsset heapPerAsset) {
+        return index.getAncestorIds(randomId());
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(assets)];
+    }
+
+    private static int parentOf(int i) {
+        return (i - 1) / FAN_OUT;
+    }
+
+    private static UUID copyOf(UUID id) {
+        return new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counted as events, so JMH reports the sizes themselves rather than rates.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapPerAsset {
+        public long indexBytesPerAsset;
+        public long estimatedIndexBytesPerAsset;
+        public long mapBytesPerAsset;
+
+        @Setup
+        public void setUp(AssetHierarchyIndexBenchmark benchmark) {
+            indexBytesPerAsset = benchmark.indexBytes / benchmark.assets;
+            estimatedIndexBytesPerAsset = benchmark.index.estimatedSizeInBytes() / benchmark.assets;
+            mapBytesPerAsset = benchmark.mapBytes / benchmark.assets;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.exec.asset.management.service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.BenchmarkApplication;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.exception.AssetHierarchyCycleException;
+
+/**
+ * Checks a parent change at the ends of a chain of {@code depth} assets, which should cost the same whatever the
+ * depth. {@link #visitedListWalk} is the traversal promotion used before cycles were rejected on write, one query per
+ * level and a visited list scanned for every asset, next to the single query promotion reads the subtree with now.
+ */
+@State(Scope.Benchmark)
+public class AssetHierarchyCycleBenchmark {
+    @Param({"10", "100", "1000"})
+    private int depth;
+    private ConfigurableApplicationContext applicationContext;
+    private AssetRepositoryService assetRepositoryService;
+    private TransactionTemplate readTransactionTemplate;
+    private UUID rootId;
+    private UUID leafId;
+
+    @Setup
+    public void setUp() {
+        applicationContext = BenchmarkApplication.start();
+        assetRepositoryService = applicationContext.getBean(AssetRepositoryService.class);
+        PlatformTransactionManager transactionManager = applicationContext.getBean(PlatformTransactionManager.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        rootId = transactionTemplate.execute(status -> assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId());
+        leafId = rootId;
+        for (int i = 0; i < depth; i++) {
+            UUID parentId = leafId;
+            leafId = transactionTemplate.execute(status -> assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(parentId).build()).getId());
+        }
+        readTransactionTemplate = new TransactionTemplate(transactionManager);
+        readTransactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public void verifyParentIsNotNested() {
+        assetRepositoryService.verifyParentIsNotNested(leafId, rootId);
+    }
+
+    @Benchmark
+    public AssetHierarchyCycleException verifyParentIsNotNestedRejectsCycle() {
+        try {
+            assetRepositoryService.verifyParentIsNotNested(rootId, leafId);
+            throw new IllegalStateException("The chain has no cycle check");
+        }
+        catch (AssetHierarchyCycleException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public int visitedListWalk() {
+        return readTransactionTemplate.execute(status -> {
+            List<UUID> usedUuids = new ArrayList<>();
+            List<UUID> level = List.of(rootId);
+            while (!level.isEmpty()) {
+                List<UUID> nextLevel = new ArrayList<>();
+                for (UUID id : level) {
+                    if (!usedUuids.contains(id)) {
+                        usedUuids.add(id);
+                        assetRepositoryService.getAssetsByParentId(id).forEach(child -> nextLevel.add(child.getId()));
+                    }
+                }
+                level = nextLevel;
+            }
+            return usedUuids.size();
+        });
+    }
+
+    @Benchmark
+    public int unpromotedSubtree() {
+        return readTransactionTemplate.execute(status -> assetRepositoryService.getUnpromotedSubtree(rootId, Integer.MAX_VALUE).size());
+    }
+}
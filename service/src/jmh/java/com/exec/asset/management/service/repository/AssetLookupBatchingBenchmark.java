@@ -0,0 +1,118 @@
+package com.exec.asset.management.service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.BenchmarkApplication;
+import com.exec.asset.management.domain.entities.AssetEntity;
+
+/**
+ * Reads single assets from 64 threads at once, as concurrent {@code GET /v1/assets/{id}} requests do, with and
+ * without lookup batching. The sampled latencies of {@link #findAssetById} give the p99 of a read,
+ * {@link #findAssetByIdThroughput} gives the reads per second and, as {@code queries}, the queries the database
+ * received per second. The asset cache is sized to nothing, so every read reaches the batcher or the database. Other
+ * request rates are measured with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(64)
+public class AssetLookupBatchingBenchmark {
+    private static final int ASSETS = 10000;
+
+    @Param({"false", "true"})
+    private boolean batching;
+    private ConfigurableApplicationContext applicationContext;
+    private AssetRepositoryService assetRepositoryService;
+    private TransactionTemplate readTransactionTemplate;
+    private Statistics statistics;
+    private List<UUID> ids;
+
+    @Setup
+    public void setUp() {
+        applicationContext = BenchmarkApplication.start("asset.lookup-batching.enabled=" + batching, "asset.asset-cache.maximum-size=0",
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        assetRepositoryService = applicationContext.getBean(AssetRepositoryService.class);
+        PlatformTransactionManager transactionManager = applicationContext.getBean(PlatformTransactionManager.class);
+        List<AssetEntity> assetEntities = new ArrayList<>(ASSETS);
+        for (int i = 0; i < ASSETS; i++) {
+            assetEntities.add(AssetEntity.builder().promoted(false).build());
+        }
+        ids = new TransactionTemplate(transactionManager).execute(status -> assetRepositoryService.saveAll(assetEntities)).stream()
+                .map(AssetEntity::getId)
+                .collect(Collectors.toList());
+        readTransactionTemplate = new TransactionTemplate(transactionManager);
+        readTransactionTemplate.setReadOnly(true);
+        statistics = applicationContext.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Optional<AssetEntity> findAssetById() {
+        UUID id = ids.get(ThreadLocalRandom.current().nextInt(ASSETS));
+        return readTransactionTemplate.execute(status -> assetRepositoryService.findAssetById(id));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Optional<AssetEntity> findAssetByIdThroughput(DatabaseQueries databaseQueries) {
+        return findAssetById();
+    }
+
+    /**
+     * Counted as operations, so JMH reports queries per second. The statistics cover all threads, so only the first
+     * thread counts them.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class DatabaseQueries {
+        public long queries;
+        private boolean counting;
+        private long queriesBefore;
+
+        @Setup(Level.Iteration)
+        public void startIteration(AssetLookupBatchingBenchmark benchmark, ThreadParams threadParams) {
+            counting = threadParams.getThreadIndex() == 0;
+            queries = 0;
+            queriesBefore = benchmark.statistics.getPrepareStatementCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void endIteration(AssetLookupBatchingBenchmark benchmark) {
+            if (counting) {
+                queries = benchmark.statistics.getPrepareStatementCount() - queriesBefore;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.exec.asset.management.util.uuid;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how many rows per second are inserted into a table keyed by ids of each strategy, in JDBC batches as
+ * {@code AssetBulkRepositoryImpl} writes them. Every iteration starts from a table that already holds
+ * {@code existingRows} rows, so random keys land all over a primary key of realistic size.
+ * <p/>
+ * Runs against an in-memory H2 database by default, where keys are compared as strings. The clustered primary key
+ * of SQL Server, where COMB ids pay off, is measured with {@code -Dbenchmark.jdbc.url}, {@code -Dbenchmark.jdbc.user},
+ * {@code -Dbenchmark.jdbc.password} and {@code -p keyType=uniqueidentifier}.
+ */
+@State(Scope.Benchmark)
+public class UuidInsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"RANDOM", "TIME_ORDERED", "COMB"})
+    private UuidStrategy strategy;
+    @Param("varchar(36)")
+    private String keyType;
+    @Param("100000")
+    private int existingRows;
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:uuid-insert"),
+                System.getProperty("benchmark.jdbc.user", "sa"), System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS uuid_insert_benchmark");
+            statement.execute("CREATE TABLE uuid_insert_benchmark (id " + keyType + " NOT NULL PRIMARY KEY, promoted bit NOT NULL, version bigint NOT NULL)");
+        }
+        connection.commit();
+        insert = connection.prepareStatement("INSERT INTO uuid_insert_benchmark (id, promoted, version) VALUES (?, 0, 0)");
+        for (int row = 0; row < existingRows; row += BATCH_SIZE) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws SQLException {
+        insert.close();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE uuid_insert_benchmark");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setString(1, strategy.generate().toString());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,41 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares the cost of generating an id with every strategy against {@link UUID#randomUUID()}, on one thread and on
+ * eight threads sharing the generator as request threads do.
+ */
+@State(Scope.Benchmark)
+public class UuidStrategyBenchmark {
+    @Param({"RANDOM", "TIME_ORDERED", "COMB"})
+    private UuidStrategy strategy;
+
+    @Benchmark
+    public UUID generate() {
+        return strategy.generate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID generateContended() {
+        return strategy.generate();
+    }
+
+    @Benchmark
+    public UUID randomUUID() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID randomUUIDContended() {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,9 @@
+package com.exec.asset.management.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({AssetCacheProperties.class, LookupBatchingProperties.class})
+public class AssetCacheConfiguration {
+}
@@ -0,0 +1,27 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the cache of assets read by id.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.asset-cache")
+public class AssetCacheProperties {
+
+    /**
+     * Maximum number of assets cached across all tenants, the least used assets are evicted first.
+     */
+    private long maximumSize = 100000;
+
+    /**
+     * Time after which a cached asset is read again. Bounds how long writes made by other instances go unnoticed.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
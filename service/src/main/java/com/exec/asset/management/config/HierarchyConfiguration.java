@@ -0,0 +1,9 @@
+package com.exec.asset.management.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({HierarchyIndexProperties.class, LineageCacheProperties.class})
+public class HierarchyConfiguration {
+}
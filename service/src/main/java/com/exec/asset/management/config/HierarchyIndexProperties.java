@@ -0,0 +1,33 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory asset hierarchy index.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.hierarchy-index")
+public class HierarchyIndexProperties {
+
+    /**
+     * Keeps the parent/children links of every asset in memory and answers subtree, ancestor and child lookups from
+     * there instead of the closure table. Meant for read-heavy tenants served by a single instance, the index only
+     * sees the writes of the instance holding it. Promotion reads the unpromoted assets from the database either way.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of assets the index is sized for before it has to grow.
+     */
+    private int initialCapacity = 1024;
+
+    /**
+     * Number of times a build starts over when assets were written while it read the table. The closure table keeps
+     * serving lookups when every attempt was overtaken by writes.
+     */
+    private int maxBuildAttempts = 3;
+}
@@ -0,0 +1,36 @@
+package com.exec.asset.management.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.exec.asset.management.util.uuid.UuidGenerator;
+import com.exec.asset.management.util.uuid.UuidIdentifierGenerator;
+
+@Configuration
+@EnableConfigurationProperties(IdGenerationProperties.class)
+public class IdGenerationConfiguration {
+    public static final String ENTITY_ID_GENERATOR = "entityIdGenerator";
+    public static final String EVENT_ID_GENERATOR = "eventIdGenerator";
+
+    @Bean(name = ENTITY_ID_GENERATOR)
+    @Primary
+    public UuidGenerator entityIdGenerator(IdGenerationProperties idGenerationProperties) {
+        return idGenerationProperties.getEntityStrategy();
+    }
+
+    @Bean(name = EVENT_ID_GENERATOR)
+    public UuidGenerator eventIdGenerator(IdGenerationProperties idGenerationProperties) {
+        return idGenerationProperties.getEventStrategy();
+    }
+
+    /**
+     * Hands the entity strategy to the id generator Hibernate creates for every entity with a UUID key.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer uuidStrategyCustomizer(IdGenerationProperties idGenerationProperties) {
+        return hibernateProperties -> hibernateProperties.put(UuidIdentifierGenerator.STRATEGY_SETTING, idGenerationProperties.getEntityStrategy().name());
+    }
+}
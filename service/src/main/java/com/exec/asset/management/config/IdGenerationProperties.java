@@ -0,0 +1,27 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+/**
+ * Settings for the ids given to new entities and events.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.ids")
+public class IdGenerationProperties {
+
+    /**
+     * Strategy for the primary keys of new entities and imported assets without an id.
+     */
+    private UuidStrategy entityStrategy = UuidStrategy.COMB;
+
+    /**
+     * Strategy for the ids of published events.
+     */
+    private UuidStrategy eventStrategy = UuidStrategy.TIME_ORDERED;
+}
@@ -0,0 +1,20 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for importing assets from a newline delimited JSON stream.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.import")
+public class ImportProperties {
+
+    /**
+     * Number of records committed by a single transaction. Only the records of the current chunk are held in memory.
+     */
+    private int chunkSize = 1000;
+}
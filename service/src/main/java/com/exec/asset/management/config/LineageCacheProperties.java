@@ -0,0 +1,27 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the cache of asset lineages served by the ancestors endpoint.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.lineage-cache")
+public class LineageCacheProperties {
+
+    /**
+     * Maximum number of lineages cached across all tenants.
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * Time after which a cached lineage is read again. Bounds how long writes made by other instances go unnoticed.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
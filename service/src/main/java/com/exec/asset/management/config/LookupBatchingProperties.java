@@ -0,0 +1,33 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for combining concurrent reads of single assets into one query.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.lookup-batching")
+public class LookupBatchingProperties {
+
+    /**
+     * Whether reads of single assets in read-only transactions are combined.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Time the first read of a batch waits for others to join. Every read of the batch takes at least this long.
+     */
+    private Duration window = Duration.ofMillis(2);
+
+    /**
+     * Number of reads after which a batch is run without waiting for the rest of the window. Has to stay below the
+     * SQL Server limit of 2100 parameters per statement.
+     */
+    private int maxBatchSize = 200;
+}
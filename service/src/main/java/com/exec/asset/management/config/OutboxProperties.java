@@ -0,0 +1,39 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for relaying events from the outbox table to Kafka.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether the relay runs. Events are still written to the outbox when it does not.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of events read, sent and deleted together.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Time the relay waits for new events when the outbox is empty. Committed transactions wake it up earlier, the
+     * interval only matters for events written by other instances or left behind by a failed batch.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Time the relay waits for the broker to acknowledge a batch. Events that are not acknowledged by then stay in
+     * the outbox and are sent again.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(30);
+}
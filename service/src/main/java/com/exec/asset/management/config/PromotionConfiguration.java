@@ -0,0 +1,43 @@
+package com.exec.asset.management.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(PromotionProperties.class)
+public class PromotionConfiguration {
+
+    public static final String PROMOTION_EXECUTOR = "promotionExecutor";
+    public static final String PROMOTION_JOB_EXECUTOR = "promotionJobExecutor";
+
+    /**
+     * Bounded worker pool for parallel promotion. When every worker is busy and the queue is full the submitting
+     * thread promotes the chunk itself, which throttles submission instead of queueing without limit.
+     */
+    @Bean(name = PROMOTION_EXECUTOR)
+    public ThreadPoolTaskExecutor promotionExecutor(PromotionProperties promotionProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(promotionProperties.getParallelism());
+        executor.setMaxPoolSize(promotionProperties.getParallelism());
+        executor.setQueueCapacity(promotionProperties.getParallelism() * 2);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("asset-promotion-");
+        return executor;
+    }
+
+    /**
+     * Runs promotion jobs in the background. Each job hands its chunks to the promotion worker pool.
+     */
+    @Bean(name = PROMOTION_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor promotionJobExecutor(PromotionProperties promotionProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(promotionProperties.getJobConcurrency());
+        executor.setMaxPoolSize(promotionProperties.getJobConcurrency());
+        executor.setThreadNamePrefix("asset-promotion-job-");
+        return executor;
+    }
+}
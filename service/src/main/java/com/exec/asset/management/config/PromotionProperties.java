@@ -0,0 +1,74 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for promoting an asset and its nested assets.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.promotion")
+public class PromotionProperties {
+
+    /**
+     * Serial promotes the whole subtree in the request transaction. Parallel promotes the root in the request
+     * transaction and its nested assets level by level on the promotion worker pool once the request commits.
+     */
+    private Mode mode = Mode.SERIAL;
+
+    /**
+     * Number of promotion worker threads. Each worker holds a database connection while promoting a chunk.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of assets promoted by a single worker transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Number of promotion jobs that run at the same time. Jobs beyond that wait for a free slot.
+     */
+    private int jobConcurrency = 2;
+
+    /**
+     * How long a promotion job stays with the instance running it without a renewal. The lease is renewed three times
+     * per duration, another instance takes the job over once it expired.
+     */
+    private Duration jobLeaseDuration = Duration.ofMinutes(1);
+
+    /**
+     * Events published for promoted assets. Per asset publishes an {@code AssetPromotionEventModel} for every promoted
+     * asset, batched publishes an {@code AssetsPromotedEventModel} for every chunk of assets promoted together.
+     */
+    private EventFormat eventFormat = EventFormat.PER_ASSET;
+
+    /**
+     * Maximum number of assets in a batched event.
+     */
+    private int eventBatchSize = 1000;
+
+    public enum Mode {
+        SERIAL,
+        PARALLEL
+    }
+
+    public enum EventFormat {
+        PER_ASSET,
+        BATCHED,
+        BOTH;
+
+        public boolean includesPerAsset() {
+            return this != BATCHED;
+        }
+
+        public boolean includesBatched() {
+            return this != PER_ASSET;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.exec.asset.management.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.hibernate.MultiTenancyStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.exec.asset.management.util.MultiTenantConnectionProviderImpl;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+/**
+ * Creates the connection provider of the tenants once replicas are configured. The application's data source is the
+ * primary of the default tenant, which is the only tenant the identifier resolver returns so far. Without replicas
+ * Hibernate uses the application's data source directly, as before.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@Slf4j
+public class ReplicaDataSourceConfiguration {
+
+    private final List<DataSource> replicaDataSources = new ArrayList<>();
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaRoutingCustomizer(ReplicaDataSourceProperties replicaDataSourceProperties, DataSource dataSource,
+            MultiTenantIdentifierResolver multiTenantIdentifierResolver) {
+        return hibernateProperties -> {
+            if (replicaDataSourceProperties.getReplicas().isEmpty()) {
+                return;
+            }
+            Map<String, DataSource> primaries = Map.of(MultiTenantIdentifierResolver.DEFAULT_TENANT_ID, dataSource);
+            Map<String, DataSource> replicas = new HashMap<>();
+            replicaDataSourceProperties.getReplicas().forEach((tenantId, replicaProperties) -> {
+                if (!primaries.containsKey(tenantId)) {
+                    log.warn("ReplicaDataSourceConfiguration:replicaRoutingCustomizer: Ignoring the replica of tenant {}, it has no primary data source", tenantId);
+                    return;
+                }
+                DataSource replica = replicaProperties.initializeDataSourceBuilder().build();
+                replicaDataSources.add(replica);
+                replicas.put(tenantId, replica);
+            });
+            log.info("ReplicaDataSourceConfiguration:replicaRoutingCustomizer: Routing read-only transactions of tenants {} to their replicas", replicas.keySet());
+            hibernateProperties.put(AvailableSettings.MULTI_TENANT, MultiTenancyStrategy.DATABASE);
+            hibernateProperties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, new MultiTenantConnectionProviderImpl(primaries, replicas));
+            hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, multiTenantIdentifierResolver);
+        };
+    }
+
+    @PreDestroy
+    public void closeReplicaDataSources() throws Exception {
+        for (DataSource replicaDataSource : replicaDataSources) {
+            if (replicaDataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replicaDataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.exec.asset.management.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for reading from replicas of the tenant databases.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "asset.datasource")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Connection settings of the read replica by tenant id, as {@code asset.datasource.replicas.<tenant>.url} and so on.
+     * Read-only transactions of a tenant with a replica read from it, everything else uses the tenant's primary.
+     */
+    private Map<String, DataSourceProperties> replicas = new LinkedHashMap<>();
+}
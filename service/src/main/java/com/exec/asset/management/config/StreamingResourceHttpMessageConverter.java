@@ -0,0 +1,29 @@
+package com.exec.asset.management.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+/**
+ * Reads newline delimited JSON request bodies into a {@link Resource} over the request stream. The default resource
+ * converter copies a body declared as {@link Resource} into memory first, which does not work for uploads of any size.
+ * The resource can be read once, while the request is handled. Resources are written like the default converter
+ * writes them.
+ */
+public class StreamingResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    public StreamingResourceHttpMessageConverter() {
+        super(true);
+        setSupportedMediaTypes(List.of(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Override
+    protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage) throws IOException {
+        return new InputStreamResource(inputMessage.getBody());
+    }
+}
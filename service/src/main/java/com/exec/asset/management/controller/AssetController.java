@@ -1,31 +1,49 @@
 package com.exec.asset.management.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.exec.asset.management.api.AssetsApi;
+import com.exec.asset.management.api.model.AssetIdsModel;
+import com.exec.asset.management.api.model.AssetImportSummaryModel;
 import com.exec.asset.management.api.model.AssetListModel;
 import com.exec.asset.management.api.model.AssetModel;
 import com.exec.asset.management.api.model.PagedAssetsModel;
+import com.exec.asset.management.domain.etag.ConditionalRead;
+import com.exec.asset.management.domain.export.AssetExportFormat;
+import com.exec.asset.management.domain.promotion.AssetUpdate;
 import com.exec.asset.management.service.controller.AssetControllerService;
+import com.exec.asset.management.service.ingest.AssetImportService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
 
 @RestController
 @RequestMapping("/v1")
 public class AssetController implements AssetsApi {
 
     protected static final int PAGE_SIZE = 50;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
 
     private AssetControllerService assetControllerService;
+    private AssetImportService assetImportService;
 
     @Autowired
-    public AssetController(AssetControllerService assetControllerService) {
+    public AssetController(AssetControllerService assetControllerService, AssetImportService assetImportService) {
         this.assetControllerService = assetControllerService;
+        this.assetImportService = assetImportService;
     }
 
     @Override
@@ -40,18 +58,68 @@ public class AssetController implements AssetsApi {
     }
 
     @Override
-    public ResponseEntity<AssetModel> getAssetById(UUID id) {
-        return ResponseEntity.ok(assetControllerService.getAssetById(id));
+    public ResponseEntity<Void> deleteAssets(AssetIdsModel assetIdsModel) {
+        assetControllerService.deleteAssetsByIds(assetIdsModel.getIds());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<AssetModel> getAssetById(UUID id, String ifNoneMatch) {
+        return conditionalResponse(assetControllerService.getAssetById(id, ifNoneMatch));
+    }
+
+    @Override
+    public ResponseEntity<List<AssetModel>> getAssetAncestors(UUID id) {
+        return ResponseEntity.ok(assetControllerService.getAncestors(id));
+    }
+
+    @Override
+    public ResponseEntity<Resource> getAssetDescendants(UUID id, Integer maxDepth) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(assetControllerService.getDescendants(id, maxDepth));
     }
 
     @Override
-    public ResponseEntity<PagedAssetsModel> listAssets(Integer pageNumber, Integer pageSize) {
-        PageRequest pageRequest = PageRequest.of(Objects.requireNonNullElse(pageNumber, 0), Objects.requireNonNullElse(pageSize, PAGE_SIZE));
-        return ResponseEntity.ok(assetControllerService.getPagedAssets(pageRequest));
+    public ResponseEntity<Resource> exportAssets(String format) {
+        AssetExportFormat exportFormat = "csv".equalsIgnoreCase(format) ? AssetExportFormat.CSV : AssetExportFormat.NDJSON;
+        return ResponseEntity.ok()
+                .contentType(exportFormat == AssetExportFormat.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(assetControllerService.exportAssets(exportFormat));
     }
 
     @Override
-    public ResponseEntity<AssetModel> updateAsset(UUID id, AssetListModel assetModel) {
-        return ResponseEntity.ok(assetControllerService.updateAssetList(assetModel, id));
+    public ResponseEntity<AssetImportSummaryModel> importAssets(Resource body) {
+        try (InputStream inputStream = body.getInputStream()) {
+            return ResponseEntity.ok(assetImportService.importAssets(inputStream));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<PagedAssetsModel> listAssets(Integer pageNumber, Integer pageSize, String cursor, Boolean includeTotalCount, String ifNoneMatch) {
+        PageRequest pageRequest = PageRequest.of(Objects.requireNonNullElse(pageNumber, 0), Objects.requireNonNullElse(pageSize, PAGE_SIZE),
+                AssetRepositoryService.ID_ORDER);
+        return conditionalResponse(assetControllerService.getPagedAssets(pageRequest, cursor, !Boolean.FALSE.equals(includeTotalCount), ifNoneMatch));
+    }
+
+    @Override
+    public ResponseEntity<AssetModel> updateAsset(UUID id, Boolean async, String ifMatch, AssetListModel assetModel) {
+        AssetUpdate assetUpdate = assetControllerService.updateAssetList(assetModel, id, Boolean.TRUE.equals(async), ifMatch);
+        if (assetUpdate.getPromotionJobId() == null) {
+            return ResponseEntity.ok(assetUpdate.getAsset());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create(PromotionJobController.PROMOTION_JOBS_PATH + "/" + assetUpdate.getPromotionJobId()))
+                .body(assetUpdate.getAsset());
+    }
+
+    private static <T> ResponseEntity<T> conditionalResponse(ConditionalRead<T> conditionalRead) {
+        if (conditionalRead.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(conditionalRead.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(conditionalRead.getETag()).body(conditionalRead.getBody());
     }
 }
@@ -0,0 +1,31 @@
+package com.exec.asset.management.controller;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.exec.asset.management.api.PromotionJobsApi;
+import com.exec.asset.management.api.model.PromotionJobModel;
+import com.exec.asset.management.service.promotion.PromotionJobService;
+
+@RestController
+@RequestMapping("/v1")
+public class PromotionJobController implements PromotionJobsApi {
+
+    protected static final String PROMOTION_JOBS_PATH = "/v1/promotion-jobs";
+
+    private PromotionJobService promotionJobService;
+
+    @Autowired
+    public PromotionJobController(PromotionJobService promotionJobService) {
+        this.promotionJobService = promotionJobService;
+    }
+
+    @Override
+    public ResponseEntity<PromotionJobModel> getPromotionJobById(UUID jobId) {
+        return ResponseEntity.ok(promotionJobService.getJobById(jobId));
+    }
+}
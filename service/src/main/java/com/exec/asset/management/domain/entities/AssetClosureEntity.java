@@ -0,0 +1,61 @@
+package com.exec.asset.management.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Type;
+
+/**
+ * One row of the asset hierarchy closure table. There is a row for every (ancestor, descendant) pair in the
+ * hierarchy, including a depth 0 row linking each asset to itself, so subtree and lineage lookups never have to walk
+ * the tree level by level.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Getter
+@Setter
+@IdClass(AssetClosureEntity.AssetClosureId.class)
+@Table(name = "asset_closure", indexes = @Index(name = "ix_asset_closure_descendant", columnList = "descendant_id, depth"))
+public class AssetClosureEntity {
+
+    @Id
+    @Type(type = "uuid-char")
+    @Column(name = "ancestor_id")
+    private UUID ancestorId;
+
+    @Id
+    @Type(type = "uuid-char")
+    @Column(name = "descendant_id")
+    private UUID descendantId;
+
+    @Column(name = "depth")
+    private Integer depth;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Getter
+    @Setter
+    public static class AssetClosureId implements Serializable {
+
+        private UUID ancestorId;
+
+        private UUID descendantId;
+    }
+}
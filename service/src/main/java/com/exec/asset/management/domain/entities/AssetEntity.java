@@ -13,21 +13,27 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 
+import com.exec.asset.management.util.uuid.UuidIdentifierGenerator;
+
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
 @Getter
 @Setter
-@Table(name = "assets")
+@Table(name = "assets", indexes = @Index(name = "ix_assets_parent_promoted", columnList = "parent_id, promoted"))
 public class AssetEntity {
 
     @Id
-    @GeneratedValue(generator = "uuid2")
+    @GeneratedValue(generator = UuidIdentifierGenerator.NAME)
+    @GenericGenerator(name = UuidIdentifierGenerator.NAME, strategy = "com.exec.asset.management.util.uuid.UuidIdentifierGenerator")
     @Type(type = "uuid-char")
     @Column
     private UUID id;
@@ -38,4 +44,16 @@ public class AssetEntity {
     @Type(type = "uuid-char")
     @Column
     private UUID parentId;
+
+    /**
+     * Incremented with every write. Hibernate only updates an asset whose version is still the one it was read with,
+     * bulk updates increment it themselves.
+     */
+    @Version
+    @Column
+    private long version;
+
+    public AssetEntity(UUID id, Boolean promoted, UUID parentId) {
+        this(id, promoted, parentId, 0L);
+    }
 }
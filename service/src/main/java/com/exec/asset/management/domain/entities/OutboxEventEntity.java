@@ -0,0 +1,90 @@
+package com.exec.asset.management.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Event waiting to be published. It is written in the transaction that changed the assets and deleted once the
+ * broker acknowledged it, so events of transactions that roll back are never published.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Getter
+@Setter
+@Table(name = "asset_event_outbox", indexes = @Index(name = "ix_asset_event_outbox_created_at", columnList = "created_at"))
+public class OutboxEventEntity implements Persistable<UUID> {
+
+    /**
+     * The event id, sent along with the event so consumers can drop events that were sent again.
+     */
+    @Id
+    @Type(type = "uuid-char")
+    @Column
+    private UUID id;
+
+    @Column
+    private String topic;
+
+    @Column
+    private String eventName;
+
+    @Column
+    private String applicationInstanceId;
+
+    @Column
+    private String assetId;
+
+    @Column
+    private String parentId;
+
+    @Column
+    private String partitionKey;
+
+    @Column
+    private String subjectId;
+
+    @Column
+    private String tenantId;
+
+    /**
+     * Format of the payload, see {@link com.exec.asset.management.domain.messages.AssetAggregateEventEntity#getContentType()}.
+     */
+    @Column
+    private String contentType;
+
+    @Lob
+    @Column
+    private byte[] payload;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column
+    private Date createdAt;
+
+    /**
+     * Events are only ever inserted and deleted, so saving one never has to read it first.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package com.exec.asset.management.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+
+import com.exec.asset.management.util.uuid.UuidIdentifierGenerator;
+
+/**
+ * Background promotion of the nested assets of a promoted asset. The counters are updated in the same transaction
+ * as each promoted chunk, so they are the checkpoint a job resumes from after a restart. An unfinished job is run by
+ * the instance that owns it, which renews the job's lease while it runs. Any instance may take over a job whose lease
+ * expired.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Getter
+@Setter
+@Table(name = "promotion_jobs")
+public class PromotionJobEntity {
+
+    @Id
+    @GeneratedValue(generator = UuidIdentifierGenerator.NAME)
+    @GenericGenerator(name = UuidIdentifierGenerator.NAME, strategy = "com.exec.asset.management.util.uuid.UuidIdentifierGenerator")
+    @Type(type = "uuid-char")
+    @Column
+    private UUID id;
+
+    @Type(type = "uuid-char")
+    @Column
+    private UUID rootAssetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private Status status;
+
+    @Column
+    private Long totalCount;
+
+    @Column
+    private Long processedCount;
+
+    @Column
+    private Long failedCount;
+
+    @Column
+    private String owner;
+
+    @Column
+    private Instant leaseExpiresAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package com.exec.asset.management.domain.etag;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Id and version of an asset, enough to tell whether it changed without hydrating
+ * {@link com.exec.asset.management.domain.entities.AssetEntity}s.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetVersion {
+
+    private UUID id;
+
+    private long version;
+}
@@ -0,0 +1,29 @@
+package com.exec.asset.management.domain.etag;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a read the client may already have the current version of.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConditionalRead<T> {
+
+    private String eTag;
+
+    /**
+     * Null when the client passed the current ETag as If-None-Match.
+     */
+    private T body;
+
+    public static <T> ConditionalRead<T> notModified(String eTag) {
+        return new ConditionalRead<>(eTag, null);
+    }
+
+    public boolean isNotModified() {
+        return body == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.exec.asset.management.domain.export;
+
+/**
+ * The formats assets can be exported in, both write one asset per line.
+ */
+public enum AssetExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,28 @@
+package com.exec.asset.management.domain.hierarchy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Lightweight view of an asset's position in the hierarchy. Used by set-based tree operations so
+ * that whole subtrees can be read without hydrating {@link com.exec.asset.management.domain.entities.AssetEntity}s.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetNode {
+
+    private UUID id;
+
+    private UUID parentId;
+
+    /**
+     * Distance from the root of the subtree the node was read from, the root itself has depth 0.
+     */
+    private Integer depth;
+}
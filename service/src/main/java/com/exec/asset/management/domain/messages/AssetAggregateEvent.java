@@ -43,6 +43,12 @@ public class AssetAggregateEvent {
      */
     private String eventName;
 
+    /**
+     * Versioned media type of the payload without a format suffix, such as {@code application/vnd.asset-promoted.v1}
+     * (optional property). The codec of the topic adds its suffix to it to form the content type of the event.
+     */
+    private String mediaType;
+
     /**
      * Aggregate/entity aka message payload.
      */
@@ -29,9 +29,16 @@ public class AssetAggregateEventEntity {
 
     private String eventName;
 
+    /**
+     * Format and version of the payload, such as {@code application/vnd.asset-promoted.v1+cbor}. Consumers use it to
+     * tell the formats of events of the same topic apart.
+     */
     private String contentType;
 
-    private String payload;
+    /**
+     * The payload, encoded as announced by the content type.
+     */
+    private byte[] payload;
 
     private String partitionKey;
 
@@ -17,6 +17,7 @@ public class AssetPromotionEventModel {
     public static final String TOPIC_NAME = "asset.events.asset-promoted";
     public static final String AGGREGATE_NAME = "asset-promotion";
     public static final String CREATED_EVENT_NAME = "asset-promoted";
+    public static final String MEDIA_TYPE = "application/vnd.asset-promoted.v1";
 
     private UUID assetId;
     private boolean promoted;
@@ -0,0 +1,38 @@
+package com.exec.asset.management.domain.messages;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Envelope of assets promoted together, published instead of or besides one {@link AssetPromotionEventModel} per
+ * asset. The assets of an envelope were all promoted below the same root asset and for the same tenant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetsPromotedEventModel {
+    public static final String CREATED_EVENT_NAME = "assets-promoted";
+    public static final String MEDIA_TYPE = "application/vnd.asset-promoted-batch.v1";
+
+    /**
+     * Id of the asset whose promotion promoted the assets.
+     */
+    private UUID rootId;
+
+    private List<PromotedAsset> assets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PromotedAsset {
+        private UUID assetId;
+        private UUID parentId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.exec.asset.management.domain.promotion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+import com.exec.asset.management.api.model.AssetModel;
+
+/**
+ * Result of updating an asset.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetUpdate {
+
+    private AssetModel asset;
+
+    /**
+     * Id of the job promoting the nested assets of the asset, null when they were promoted within the update.
+     */
+    private UUID promotionJobId;
+}
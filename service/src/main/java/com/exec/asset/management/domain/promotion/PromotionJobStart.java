@@ -0,0 +1,24 @@
+package com.exec.asset.management.domain.promotion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of promoting an asset and starting a job for its nested assets.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionJobStart {
+
+    /**
+     * Ids of the assets promoted in the current transaction, empty when the asset was promoted concurrently.
+     */
+    private List<UUID> promotedIds;
+
+    private UUID jobId;
+}
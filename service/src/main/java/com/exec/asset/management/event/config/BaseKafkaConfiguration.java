@@ -6,8 +6,19 @@
 
 package com.exec.asset.management.event.config;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +35,7 @@ import org.springframework.kafka.core.ProducerFactory;
 public class BaseKafkaConfiguration {
 
     protected final KafkaProperties kafkaProps;
+    private final Map<String, KafkaTemplate<String, byte[]>> profileTemplates = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new configuration instance.
@@ -34,15 +46,49 @@ public class BaseKafkaConfiguration {
     }
 
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(kafkaProps.buildProducerConfig().originals());
+    public ProducerFactory<String, byte[]> producerFactory() {
+        return createProducerFactory(KafkaProperties.DEFAULT_PROFILE);
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * @return the settings of the publishing pipeline.
+     */
+    public KafkaProperties kafkaProperties() {
+        return kafkaProps;
+    }
+
+    /**
+     * Returns the template of the producer profile of the topic. Topics without a profile share the
+     * {@link #kafkaTemplate()} bean, each profile gets a producer of its own.
+     * @param topic the topic.
+     * @return the template to send records of the topic with.
+     */
+    public KafkaTemplate<String, byte[]> kafkaTemplateForTopic(String topic) {
+        String profile = kafkaProps.profileOf(topic);
+        if (KafkaProperties.DEFAULT_PROFILE.equals(profile)) {
+            return kafkaTemplate();
+        }
+        return profileTemplates.computeIfAbsent(profile, name -> new KafkaTemplate<>(createProducerFactory(name)));
+    }
+
+    /**
+     * Keys are strings and payloads are encoded by their codec before they are sent, whatever serializers are
+     * configured.
+     */
+    private DefaultKafkaProducerFactory<String, byte[]> createProducerFactory(String profile) {
+        return new DefaultKafkaProducerFactory<>(kafkaProps.buildProducerConfig(profile).originals(), new StringSerializer(), new ByteArraySerializer());
+    }
+
+    @PreDestroy
+    public void destroyProfileTemplates() {
+        profileTemplates.values().forEach(kafkaTemplate -> ((DefaultKafkaProducerFactory<String, byte[]>) kafkaTemplate.getProducerFactory()).destroy());
+    }
+
     @ConfigurationProperties(prefix = "asset")
     public static class Kafka extends KafkaProperties {
 
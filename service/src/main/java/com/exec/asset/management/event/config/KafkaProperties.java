@@ -9,17 +9,49 @@ package com.exec.asset.management.event.config;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Arrays;
 import java.util.Properties;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
 
+import com.exec.asset.management.event.codec.PayloadCodec;
+
 /**
  * This is a base class from which different broker specific kafka
  * properties classes may extend.
+ * <p/>
+ * Besides the native producer settings, the properties contain the settings of the publishing pipeline, the payload
+ * codecs of topics and producer profiles. A codec lists the topics whose payloads it encodes, payloads of other topics
+ * are JSON. A profile overrides native producer settings, such as {@code linger.ms}, {@code batch.size},
+ * {@code compression.type} or {@code enable.idempotence}, for the topics it lists. Every profile limits the sends
+ * waiting for their acknowledgement on its own, to {@code max-in-flight} unless the profile sets its own limit:
+ * <pre>
+ * asset:
+ *   kafka:
+ *     bootstrap.servers: localhost:9092
+ *     max-in-flight: 1000
+ *     codecs:
+ *       cbor: asset.events.asset-promoted
+ *     profiles:
+ *       bulk:
+ *         topics: asset.events.asset-promoted
+ *         linger.ms: 20
+ *         max-in-flight: 5000
+ * </pre>
  */
 @Getter
 @Setter
 public abstract class KafkaProperties {
+    public static final String DEFAULT_PROFILE = "default";
+    private static final String PROFILES_PREFIX = "profiles.";
+    private static final String TOPICS_PREFIX = "topics.";
+    private static final String CODECS_PREFIX = "codecs.";
+    private static final String PROFILE_TOPICS = "topics";
+    private static final String MAX_IN_FLIGHT = "max-in-flight";
+    private static final String MAX_IN_FLIGHT_WAIT_MS = "max-in-flight-wait-ms";
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+    private static final long DEFAULT_MAX_IN_FLIGHT_WAIT_MS = 60000;
+
     private Properties kafka;
 
     /**
@@ -28,7 +60,83 @@ public abstract class KafkaProperties {
      * @return a new ProducerConfig object.
      */
     public ProducerConfig buildProducerConfig() {
-        return new ProducerConfig(kafka);
+        return buildProducerConfig(DEFAULT_PROFILE);
+    }
+
+    /**
+     * Constructs a ProducerConfig object of the native producer settings, overridden by those of the profile.
+     * @param profile name of the profile, see {@link #profileOf(String)}.
+     * @return a new ProducerConfig object.
+     */
+    public ProducerConfig buildProducerConfig(String profile) {
+        Properties producerProperties = new Properties();
+        String profilePrefix = PROFILES_PREFIX + profile + ".";
+        for (String key : kafka.stringPropertyNames()) {
+            if (!key.startsWith(PROFILES_PREFIX) && !key.startsWith(TOPICS_PREFIX) && !key.startsWith(CODECS_PREFIX)
+                    && !key.equals(MAX_IN_FLIGHT) && !key.equals(MAX_IN_FLIGHT_WAIT_MS)) {
+                producerProperties.setProperty(key, kafka.getProperty(key));
+            }
+        }
+        for (String key : kafka.stringPropertyNames()) {
+            if (key.startsWith(profilePrefix) && !key.equals(profilePrefix + PROFILE_TOPICS) && !key.equals(profilePrefix + MAX_IN_FLIGHT)) {
+                producerProperties.setProperty(key.substring(profilePrefix.length()), kafka.getProperty(key));
+            }
+        }
+        return new ProducerConfig(producerProperties);
+    }
+
+    /**
+     * @param topic the topic.
+     * @return the name of the profile listing the topic, {@link #DEFAULT_PROFILE} when none does.
+     */
+    public String profileOf(String topic) {
+        for (String key : kafka.stringPropertyNames()) {
+            if (key.startsWith(PROFILES_PREFIX) && key.endsWith("." + PROFILE_TOPICS)
+                    && listsTopic(kafka.getProperty(key), topic)) {
+                return key.substring(PROFILES_PREFIX.length(), key.length() - PROFILE_TOPICS.length() - 1);
+            }
+        }
+        return DEFAULT_PROFILE;
+    }
+
+    /**
+     * @param topic the topic.
+     * @return the codec listing the topic, {@link PayloadCodec#JSON} when none does.
+     * @throws IllegalArgumentException when the codec listing the topic does not exist.
+     */
+    public PayloadCodec codecOf(String topic) {
+        for (String key : kafka.stringPropertyNames()) {
+            if (key.startsWith(CODECS_PREFIX) && listsTopic(kafka.getProperty(key), topic)) {
+                return PayloadCodec.of(key.substring(CODECS_PREFIX.length()));
+            }
+        }
+        return PayloadCodec.JSON;
+    }
+
+    /**
+     * @return the number of sends that may wait for their acknowledgement at the same time.
+     */
+    public int getMaxInFlight() {
+        return Integer.parseInt(kafka.getProperty(MAX_IN_FLIGHT, String.valueOf(DEFAULT_MAX_IN_FLIGHT)));
+    }
+
+    /**
+     * @param profile name of the profile, see {@link #profileOf(String)}.
+     * @return the number of sends to the topics of the profile that may wait for their acknowledgement at the same time.
+     */
+    public int getMaxInFlight(String profile) {
+        String profileMaxInFlight = kafka.getProperty(PROFILES_PREFIX + profile + "." + MAX_IN_FLIGHT);
+        return profileMaxInFlight == null ? getMaxInFlight() : Integer.parseInt(profileMaxInFlight);
     }
 
+    /**
+     * @return how long a send waits for an in-flight send to complete, once the maximum is reached.
+     */
+    public long getMaxInFlightWaitMs() {
+        return Long.parseLong(kafka.getProperty(MAX_IN_FLIGHT_WAIT_MS, String.valueOf(DEFAULT_MAX_IN_FLIGHT_WAIT_MS)));
+    }
+
+    private static boolean listsTopic(String topics, String topic) {
+        return Arrays.stream(topics.split(",")).map(String::trim).anyMatch(topic::equals);
+    }
 }
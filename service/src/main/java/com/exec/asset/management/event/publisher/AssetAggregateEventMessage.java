@@ -37,7 +37,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  *     "assetId": "2b888578-02a8-450e-935f-14d4c34846b4",
  *     "parentAssetId": "aa289f8e-bb6d-11ed-afa1-0242ac120002",
  *     "createdAt": "2020-07-07T15:32:21.156+0000",
- *     "subjectId": "subject"
+ *     "subjectId": "subject",
+ *     "contentType": "application/vnd.asset-promoted.v1+json"
  *     ...
  *   },
  *   "payload": {
@@ -110,6 +111,7 @@ public class AssetAggregateEventMessage<T> {
         public static final String EVENT_ID_HEADER_NAME = "eventId";
         public static final String SUBJECT_ID_HEADER_NAME = "subjectId";
         public static final String TENANT_NAME_HEADER_NAME = "tenantName";
+        public static final String CONTENT_TYPE_HEADER_NAME = "contentType";
 
         public static final String DEFAULT_EVENT_NAME_VALUE = "no-event-name";
         public static final String DEFAULT_AGGREGATE_KEY_VALUE = "no-aggregate-key";
@@ -167,6 +169,11 @@ public class AssetAggregateEventMessage<T> {
          */
         private String subjectId;
 
+        /**
+         * Format and version of the payload (optional property)
+         */
+        private String contentType;
+
         /**
          * Returns a map (key: String, value: Object) representation of this object.
          *
@@ -182,12 +189,12 @@ public class AssetAggregateEventMessage<T> {
     /**
      * Creates a new instance of {@link AssetAggregateEventMessage} using the given {@link
      * AssetAggregateEventEntity}. The type of the payload for the message will always be
-     * {@link String}.
+     * {@code byte[]}, encoded as announced by the content type header.
      *
      * @param entity The entity to transform into a message.
-     * @return A new instance of type {@code AssetAggregateEventMessage<String>}.
+     * @return A new instance of type {@code AssetAggregateEventMessage<byte[]>}.
      */
-    public static AssetAggregateEventMessage<String> of(AssetAggregateEventEntity entity) {
+    public static AssetAggregateEventMessage<byte[]> of(AssetAggregateEventEntity entity) {
         AssetAggregateEventMessage.Headers headers = new AssetAggregateEventMessage.Headers();
         headers.setEventName(entity.getEventName());
         headers.setEventId(entity.getEventId());
@@ -197,6 +204,7 @@ public class AssetAggregateEventMessage<T> {
         headers.setParentAssetId(entity.getParentId());
         headers.setCreatedAt(entity.getCreatedAt());
         headers.setSubjectId(entity.getSubjectId());
+        headers.setContentType(entity.getContentType());
         return new AssetAggregateEventMessage<>(headers, entity.getPayload());
     }
 
@@ -2,65 +2,153 @@ package com.exec.asset.management.event.publisher;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import com.exec.asset.management.config.IdGenerationConfiguration;
 import com.exec.asset.management.domain.messages.AssetAggregateEvent;
 import com.exec.asset.management.domain.messages.AssetAggregateEventEntity;
+import com.exec.asset.management.event.codec.PayloadCodec;
 import com.exec.asset.management.event.config.BaseKafkaConfiguration;
+import com.exec.asset.management.event.config.KafkaProperties;
+import com.exec.asset.management.event.publisher.AssetAggregateEventMessage.Headers;
 import com.exec.asset.management.util.JsonUtils;
 import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Slf4j
 @Component
 public class KafkaMessagingSystemService {
+    // The format the JsonUtils object mapper writes dates with.
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+    private static final String SEND_METRIC_NAME = "asset.kafka.send";
 
     private BaseKafkaConfiguration kafkaProducerConfig;
     @Autowired
     private MultiTenantIdentifierResolver multiTenantIdentifierResolver;
+    private UuidGenerator eventIdGenerator;
+    private final MeterRegistry meterRegistry;
+    // One limit per producer profile, as the profiles have producers and buffers of their own.
+    private final Map<String, Semaphore> inFlightSendsByProfile = new ConcurrentHashMap<>();
+    private final long maxInFlightWaitMs;
 
     /**
      * It initialize the KafkaTemplate.
      */
-    public KafkaMessagingSystemService(BaseKafkaConfiguration kafkaProducerConfig, MultiTenantIdentifierResolver multiTenantIdentifierResolver) {
+    public KafkaMessagingSystemService(BaseKafkaConfiguration kafkaProducerConfig, MultiTenantIdentifierResolver multiTenantIdentifierResolver,
+            @Qualifier(IdGenerationConfiguration.EVENT_ID_GENERATOR) UuidGenerator eventIdGenerator, MeterRegistry meterRegistry) {
         this.kafkaProducerConfig = kafkaProducerConfig;
         this.multiTenantIdentifierResolver = multiTenantIdentifierResolver;
+        this.eventIdGenerator = eventIdGenerator;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlightWaitMs = kafkaProducerConfig.kafkaProperties().getMaxInFlightWaitMs();
     }
 
-    public ListenableFuture<SendResult<String, String>> send(AssetAggregateEvent aae) {
-        AssetAggregateEventEntity aggregateEventEntity = mapToEntity(aae);
-        Message<String> message = createMessage(aggregateEventEntity);
-        KafkaTemplate<String, String> kafkaTemplate = kafkaProducerConfig.kafkaTemplate();
+    public ListenableFuture<SendResult<String, byte[]>> send(AssetAggregateEvent aae) {
+        return send(mapToEntity(aae));
+    }
+
+    /**
+     * Sends an event that was mapped before, keeping its event id and creation time. The record names its topic and
+     * is sent with the template of the producer profile of the topic, so sends of different profiles do not interfere.
+     * Once the maximum number of sends of the profile wait for their acknowledgement, the send blocks until one of
+     * them completes. Topics of the same profile share its producer and its limit.
+     * Every completed send is recorded in the {@value #SEND_METRIC_NAME} timer by topic and outcome.
+     *
+     * @param aggregateEventEntity the event, its topic has to be set.
+     * @return completes once the broker acknowledged the event.
+     * @throws KafkaException when no in-flight send completed in time.
+     */
+    public ListenableFuture<SendResult<String, byte[]>> send(AssetAggregateEventEntity aggregateEventEntity) {
+        ProducerRecord<String, byte[]> producerRecord = createRecord(aggregateEventEntity);
+        KafkaTemplate<String, byte[]> kafkaTemplate = kafkaProducerConfig.kafkaTemplateForTopic(producerRecord.topic());
+
+        log.debug("Sending message {topic={}, eventId={}, assetId={}, parentAssetId= {}}", aggregateEventEntity.getMsgSysTopic(),
+                aggregateEventEntity.getEventId(), aggregateEventEntity.getAssetId(), aggregateEventEntity.getParentId());
+        Semaphore inFlightSends = inFlightSendsOf(producerRecord.topic());
+        acquireInFlightSend(inFlightSends, producerRecord.topic());
+        long startedAt = System.nanoTime();
+        ListenableFuture<SendResult<String, byte[]>> acknowledgement;
+        try {
+            acknowledgement = kafkaTemplate.send(producerRecord);
+        }
+        catch (RuntimeException e) {
+            completeInFlightSend(inFlightSends, producerRecord.topic(), startedAt, e);
+            throw e;
+        }
+        acknowledgement.addCallback(result -> completeInFlightSend(inFlightSends, producerRecord.topic(), startedAt, null),
+                e -> completeInFlightSend(inFlightSends, producerRecord.topic(), startedAt, e));
+        return acknowledgement;
+    }
+
+    private Semaphore inFlightSendsOf(String topic) {
+        KafkaProperties kafkaProperties = kafkaProducerConfig.kafkaProperties();
+        return inFlightSendsByProfile.computeIfAbsent(kafkaProperties.profileOf(topic), profile -> new Semaphore(kafkaProperties.getMaxInFlight(profile)));
+    }
+
+    private void acquireInFlightSend(Semaphore inFlightSends, String topic) {
+        try {
+            if (!inFlightSends.tryAcquire(maxInFlightWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new KafkaException("Sending to topic " + topic + " timed out waiting for one of the in-flight sends to complete");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted waiting for one of the in-flight sends to complete", e);
+        }
+    }
 
-        log.debug("Sending message {topic={}, eventId={}, assetId={}, parentAssetId= {}}", aggregateEventEntity.getAssetId(),
-                aggregateEventEntity.getEventName(), aggregateEventEntity.getEventId(), aggregateEventEntity.getParentId());
-        kafkaTemplate.setDefaultTopic(aae.getMsgSysTopic());
-        return kafkaTemplate.send(message);
+    private void completeInFlightSend(Semaphore inFlightSends, String topic, long startedAt, Throwable failure) {
+        inFlightSends.release();
+        meterRegistry.timer(SEND_METRIC_NAME, "topic", topic, "outcome", failure == null ? "success" : "failure")
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            log.warn("KafkaMessagingSystemService:send: Sending to topic {} failed", topic, failure);
+        }
     }
 
-    private AssetAggregateEventEntity mapToEntity(AssetAggregateEvent aee) {
+    /**
+     * Assigns the event its id, tenant and creation time, and encodes its payload with the codec of its topic. A
+     * payload that is a String is taken to be JSON already.
+     *
+     * @param aee the event.
+     * @return the event as it is sent.
+     */
+    public AssetAggregateEventEntity mapToEntity(AssetAggregateEvent aee) {
         Object o = aee.getAggregate();
-        String payload = o.getClass() == String.class ? (String) o : JsonUtils.toJson(o);
+        PayloadCodec payloadCodec = o.getClass() == String.class ? PayloadCodec.JSON : kafkaProducerConfig.kafkaProperties().codecOf(aee.getMsgSysTopic());
+        byte[] payload = o.getClass() == String.class ? ((String) o).getBytes(StandardCharsets.UTF_8) : payloadCodec.encode(o);
         Date createdAt = new Date();
 
         return AssetAggregateEventEntity.builder()
-                .eventId(UUID.randomUUID())
+                .eventId(eventIdGenerator.generate())
                 .applicationInstanceId(aee.getApplicationInstanceId())
+                .msgSysTopic(aee.getMsgSysTopic())
                 .msgSysHeaders(aee.getMsgSysHeaders())
                 .assetId(aee.getAssetId())
                 .parentId(aee.getParentId())
                 .tenantId(multiTenantIdentifierResolver.resolveCurrentTenantIdentifier())
                 .eventName(aee.getEventName())
+                .contentType(payloadCodec.contentType(aee.getMediaType()))
                 .payload(payload)
                 .partitionKey(aee.getPartitionKey())
                 .createdAt(createdAt)
@@ -69,23 +157,55 @@ public class KafkaMessagingSystemService {
     }
 
     /**
-     * Create the message to be send to messaging service.
+     * Creates the record to be sent to the messaging service. The headers are encoded straight to bytes, in the format
+     * {@link AssetAggregateEventMessage.Headers} are serialized with, and the payload is sent as it was serialized when
+     * the event was created.
      *
      * @param aggregateEventEntity AssetAggregateEventEntity
-     * @return Message
+     * @return ProducerRecord
      */
-    protected Message<String> createMessage(AssetAggregateEventEntity aggregateEventEntity) {
-        AssetAggregateEventMessage<String> message = AssetAggregateEventMessage.of(aggregateEventEntity);
-        Map<String, Object> stdHeaders = message.getHeaders().toMap();
-        MessageBuilder<String> builder = MessageBuilder.withPayload(message.getPayload());
+    protected ProducerRecord<String, byte[]> createRecord(AssetAggregateEventEntity aggregateEventEntity) {
+        RecordHeaders headers = new RecordHeaders();
+        if (aggregateEventEntity.getMsgSysHeaders() != null) {
+            aggregateEventEntity.getMsgSysHeaders().forEach((key, value) -> addHeader(headers, key, encodeHeaderValue(value)));
+        }
+        addHeader(headers, Headers.EVENT_NAME_HEADER_NAME, aggregateEventEntity.getEventName());
+        addHeader(headers, Headers.EVENT_ID_HEADER_NAME, aggregateEventEntity.getEventId() == null ? null : aggregateEventEntity.getEventId().toString());
+        addHeader(headers, Headers.APPLICATION_INSTANCE_ID_HEADER_NAME, aggregateEventEntity.getApplicationInstanceId());
+        addHeader(headers, Headers.TENANT_ID_HEADER_NAME, aggregateEventEntity.getTenantId());
+        addHeader(headers, Headers.ASSET_ID_HEADER_NAME, aggregateEventEntity.getAssetId());
+        addHeader(headers, Headers.PARENT_ASSET_ID_HEADER_NAME, aggregateEventEntity.getParentId());
+        addHeader(headers, Headers.CREATED_AT_HEADER_NAME,
+                aggregateEventEntity.getCreatedAt() == null ? null : CREATED_AT_FORMAT.format(aggregateEventEntity.getCreatedAt().toInstant()));
+        addHeader(headers, Headers.SUBJECT_ID_HEADER_NAME, aggregateEventEntity.getSubjectId());
+        addHeader(headers, Headers.CONTENT_TYPE_HEADER_NAME, aggregateEventEntity.getContentType());
 
-        if (aggregateEventEntity.getPartitionKey() != null) {
-            builder.setHeader(KafkaHeaders.MESSAGE_KEY, aggregateEventEntity.getPartitionKey());
+        return new ProducerRecord<>(aggregateEventEntity.getMsgSysTopic(), null, aggregateEventEntity.getPartitionKey(), aggregateEventEntity.getPayload(), headers);
+    }
+
+    /**
+     * Adds the header unless it is empty, standard headers replace message system headers of the same name.
+     */
+    private static void addHeader(RecordHeaders headers, String key, String value) {
+        if (value != null && !value.isEmpty()) {
+            addHeader(headers, key, value.getBytes(StandardCharsets.UTF_8));
         }
-        return builder
-                .copyHeaders(aggregateEventEntity.getMsgSysHeaders())
-                .copyHeaders(stdHeaders)
-                .setHeader(KafkaHeaders.TOPIC, aggregateEventEntity.getMsgSysTopic())
-                .build();
     }
-}
\ No newline at end of file
+
+    private static void addHeader(RecordHeaders headers, String key, byte[] value) {
+        if (value != null) {
+            headers.remove(key);
+            headers.add(key, value);
+        }
+    }
+
+    private static byte[] encodeHeaderValue(Object value) {
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+        return JsonUtils.toJsonBytes(JsonUtils.objectWriter(value.getClass()), value);
+    }
+}
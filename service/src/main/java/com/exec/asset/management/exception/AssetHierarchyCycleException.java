@@ -0,0 +1,14 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AssetHierarchyCycleException extends RuntimeException {
+
+    public AssetHierarchyCycleException(UUID id, UUID parentId) {
+        super(String.format("asset-management:asset-hierarchy-cycle: Asset with id: %s cannot have parent id: %s because the parent is nested below it", id.toString(), parentId.toString()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class AssetPreconditionFailedException extends RuntimeException {
+
+    public AssetPreconditionFailedException(UUID id, String eTag) {
+        super(String.format("asset-management:asset-precondition-failed: Asset with id: %s has ETag: %s, which does not match If-Match", id, eTag));
+    }
+}
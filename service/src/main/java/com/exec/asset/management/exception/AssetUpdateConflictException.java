@@ -0,0 +1,16 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AssetUpdateConflictException extends RuntimeException {
+
+    public AssetUpdateConflictException(UUID id, int attempts) {
+        super(id == null
+                ? String.format("asset-management:asset-update-conflict: Assets were changed concurrently, gave up after %d attempts", attempts)
+                : String.format("asset-management:asset-update-conflict: Asset with id: %s was changed concurrently, gave up after %d attempts", id, attempts));
+    }
+}
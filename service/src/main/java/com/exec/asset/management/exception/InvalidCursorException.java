@@ -0,0 +1,12 @@
+package com.exec.asset.management.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super(String.format("asset-management:invalid-cursor: Cursor: %s was not returned by a previous page", cursor));
+    }
+}
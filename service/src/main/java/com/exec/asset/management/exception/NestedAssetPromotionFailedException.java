@@ -0,0 +1,14 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class NestedAssetPromotionFailedException extends RuntimeException {
+
+    public NestedAssetPromotionFailedException(UUID id, Throwable cause) {
+        super(String.format("asset-management:nested-asset-promotion-failed: Asset with id: %s was promoted, promoting its nested assets failed", id), cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PromotionJobDoesNotExistException extends RuntimeException {
+
+    public PromotionJobDoesNotExistException(UUID id) {
+        super(String.format("asset-management:promotion-job-does-not-exist: Promotion job does not exist with id: %s", id.toString()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.exec.asset.management.exception;
+
+import java.util.UUID;
+
+/**
+ * Another instance took over a promotion job, because this instance did not renew the job's lease in time.
+ */
+public class PromotionJobLeaseLostException extends RuntimeException {
+
+    public PromotionJobLeaseLostException(UUID id) {
+        super(String.format("asset-management:promotion-job-lease-lost: Promotion job with id: %s is owned by another instance", id.toString()));
+    }
+}
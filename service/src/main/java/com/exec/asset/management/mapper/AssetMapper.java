@@ -1,14 +1,31 @@
 package com.exec.asset.management.mapper;
 
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.exec.asset.management.api.model.AssetModel;
 import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
 import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.util.uuid.UuidGenerator;
+import com.exec.asset.management.util.uuid.UuidStrategy;
 
 @Component
 public class AssetMapper {
 
+    private final UuidGenerator uuidGenerator;
+
+    public AssetMapper() {
+        this(UuidStrategy.COMB);
+    }
+
+    @Autowired
+    public AssetMapper(UuidGenerator uuidGenerator) {
+        this.uuidGenerator = uuidGenerator;
+    }
+
     public AssetModel mapAssetEntityToAssetModel(AssetEntity assetEntity) {
         AssetModel assetModel = new AssetModel();
         assetModel.setId(assetEntity.getId());
@@ -24,6 +41,17 @@ public class AssetMapper {
                 .build();
     }
 
+    /**
+     * Imported records keep their id and parent id, a record without an id gets a new one.
+     */
+    public AssetEntity mapImportedAssetModelToAssetEntity(AssetModel assetModel) {
+        return AssetEntity.builder()
+                .id(Objects.requireNonNullElseGet(assetModel.getId(), uuidGenerator::generate))
+                .promoted(Boolean.TRUE.equals(assetModel.getPromoted()))
+                .parentId(assetModel.getParentId())
+                .build();
+    }
+
     public AssetPromotionEventModel mapAssetEntityToAssetPromotionEventModel(AssetEntity assetEntity) {
         return AssetPromotionEventModel.builder()
                 .assetId(assetEntity.getId())
@@ -31,4 +59,12 @@ public class AssetMapper {
                 .parentId(assetEntity.getParentId())
                 .build();
     }
+
+    public AssetPromotionEventModel mapPromotedAssetNodeToAssetPromotionEventModel(AssetNode assetNode) {
+        return AssetPromotionEventModel.builder()
+                .assetId(assetNode.getId())
+                .promoted(true)
+                .parentId(assetNode.getParentId())
+                .build();
+    }
 }
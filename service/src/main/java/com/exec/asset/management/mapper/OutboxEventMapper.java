@@ -0,0 +1,47 @@
+package com.exec.asset.management.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.exec.asset.management.domain.entities.OutboxEventEntity;
+import com.exec.asset.management.domain.messages.AssetAggregateEventEntity;
+
+/**
+ * Additional messaging system headers are not kept in the outbox, the events written to it do not use them.
+ */
+@Component
+public class OutboxEventMapper {
+
+    public OutboxEventEntity mapAssetAggregateEventEntityToOutboxEventEntity(AssetAggregateEventEntity aggregateEventEntity) {
+        return OutboxEventEntity.builder()
+                .id(aggregateEventEntity.getEventId())
+                .topic(aggregateEventEntity.getMsgSysTopic())
+                .eventName(aggregateEventEntity.getEventName())
+                .applicationInstanceId(aggregateEventEntity.getApplicationInstanceId())
+                .assetId(aggregateEventEntity.getAssetId())
+                .parentId(aggregateEventEntity.getParentId())
+                .partitionKey(aggregateEventEntity.getPartitionKey())
+                .subjectId(aggregateEventEntity.getSubjectId())
+                .tenantId(aggregateEventEntity.getTenantId())
+                .contentType(aggregateEventEntity.getContentType())
+                .payload(aggregateEventEntity.getPayload())
+                .createdAt(aggregateEventEntity.getCreatedAt())
+                .build();
+    }
+
+    public AssetAggregateEventEntity mapOutboxEventEntityToAssetAggregateEventEntity(OutboxEventEntity outboxEventEntity) {
+        return AssetAggregateEventEntity.builder()
+                .eventId(outboxEventEntity.getId())
+                .msgSysTopic(outboxEventEntity.getTopic())
+                .eventName(outboxEventEntity.getEventName())
+                .applicationInstanceId(outboxEventEntity.getApplicationInstanceId())
+                .assetId(outboxEventEntity.getAssetId())
+                .parentId(outboxEventEntity.getParentId())
+                .partitionKey(outboxEventEntity.getPartitionKey())
+                .subjectId(outboxEventEntity.getSubjectId())
+                .tenantId(outboxEventEntity.getTenantId())
+                .contentType(outboxEventEntity.getContentType())
+                .payload(outboxEventEntity.getPayload())
+                .createdAt(outboxEventEntity.getCreatedAt())
+                .build();
+    }
+}
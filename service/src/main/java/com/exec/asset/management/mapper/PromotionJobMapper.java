@@ -0,0 +1,25 @@
+package com.exec.asset.management.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.exec.asset.management.api.model.PromotionJobModel;
+import com.exec.asset.management.domain.entities.PromotionJobEntity;
+
+@Component
+public class PromotionJobMapper {
+
+    public PromotionJobModel mapPromotionJobEntityToPromotionJobModel(PromotionJobEntity promotionJobEntity) {
+        long processed = promotionJobEntity.getProcessedCount();
+        long failed = promotionJobEntity.getFailedCount();
+        long total = promotionJobEntity.getTotalCount() == null ? processed + failed : promotionJobEntity.getTotalCount();
+
+        PromotionJobModel promotionJobModel = new PromotionJobModel();
+        promotionJobModel.setId(promotionJobEntity.getId());
+        promotionJobModel.setRootAssetId(promotionJobEntity.getRootAssetId());
+        promotionJobModel.setStatus(PromotionJobModel.StatusEnum.fromValue(promotionJobEntity.getStatus().name()));
+        promotionJobModel.setProcessedCount(processed);
+        promotionJobModel.setFailedCount(failed);
+        promotionJobModel.setRemainingCount(Math.max(0, total - processed - failed));
+        return promotionJobModel;
+    }
+}
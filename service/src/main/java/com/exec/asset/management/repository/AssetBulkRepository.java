@@ -0,0 +1,39 @@
+package com.exec.asset.management.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.exec.asset.management.domain.entities.AssetClosureEntity;
+import com.exec.asset.management.domain.entities.AssetEntity;
+
+/**
+ * Inserts and updates that bypass the persistence context. The rows go out in JDBC batches on the current
+ * transaction's connection and nothing is kept in memory afterwards, so they suit imports of any size. Entities loaded
+ * earlier in the same transaction do not see the inserted rows.
+ */
+public interface AssetBulkRepository {
+
+    /**
+     * Inserts new assets, every asset must have an id.
+     * @param assetEntities to insert.
+     */
+    void insertAssets(List<AssetEntity> assetEntities);
+
+    /**
+     * Inserts closure table rows.
+     * @param links to insert.
+     */
+    void insertHierarchyLinks(List<AssetClosureEntity> links);
+
+    /**
+     * Promotes the given assets with one guarded update per chunk of 1000 ids. An asset is only updated while it is not
+     * promoted, so of several transactions promoting the same asset exactly one updates it, the others wait for its row
+     * lock and then find it promoted. SQL Server returns the flipped ids with OUTPUT, other databases lock the chunk
+     * and read its unpromoted rows first, which takes two more statements. Chunks are sorted and run in the order of
+     * {@link com.exec.asset.management.util.uuid.UniqueIdentifierOrder}, the order of the keys in SQL Server. The persistence context is flushed before
+     * and cleared afterwards.
+     * @param ids of the assets to promote.
+     * @return ids of the assets this transaction promoted, in the given order.
+     */
+    List<UUID> promoteByIds(List<UUID> ids);
+}
@@ -0,0 +1,194 @@
+package com.exec.asset.management.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.domain.entities.AssetClosureEntity;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.util.uuid.UniqueIdentifierOrder;
+
+@Slf4j
+@Transactional
+public class AssetBulkRepositoryImpl implements AssetBulkRepository {
+
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private static final String INSERT_ASSET =
+            "INSERT INTO assets (id, promoted, parent_id, version) VALUES (?, ?, ?, 0)";
+
+    private static final String INSERT_LINK =
+            "INSERT INTO asset_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)";
+
+    // Keeps IN lists well below the SQL Server limit of 2100 parameters per statement.
+    private static final int PROMOTE_CHUNK_SIZE = 1000;
+
+    private static final String SQL_SERVER = "Microsoft SQL Server";
+
+    // OUTPUT returns the ids this statement flipped, rows promoted by a concurrent transaction fail the guard.
+    private static final String PROMOTE_ASSETS_RETURNING_IDS =
+            "UPDATE assets SET promoted = ?, version = version + 1 OUTPUT inserted.id WHERE id IN (%s) AND (promoted IS NULL OR promoted <> ?)";
+
+    private static final String LOCK_ASSETS =
+            "SELECT id FROM assets WHERE id IN (%s) FOR UPDATE";
+
+    private static final String SELECT_UNPROMOTED_ASSETS =
+            "SELECT id FROM assets WHERE id IN (%s) AND (promoted IS NULL OR promoted <> ?)";
+
+    private static final String PROMOTE_ASSETS =
+            "UPDATE assets SET promoted = ?, version = version + 1 WHERE id IN (%s) AND (promoted IS NULL OR promoted <> ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAssets(List<AssetEntity> assetEntities) {
+        log.debug("AssetBulkRepositoryImpl:insertAssets: Inserting {} assets", assetEntities.size());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ASSET)) {
+                int batched = 0;
+                for (AssetEntity assetEntity : assetEntities) {
+                    statement.setString(1, assetEntity.getId().toString());
+                    statement.setBoolean(2, Boolean.TRUE.equals(assetEntity.getPromoted()));
+                    if (assetEntity.getParentId() == null) {
+                        statement.setNull(3, Types.VARCHAR);
+                    }
+                    else {
+                        statement.setString(3, assetEntity.getParentId().toString());
+                    }
+                    batched = addBatch(statement, batched);
+                }
+                executeBatch(statement, batched);
+            }
+        });
+    }
+
+    @Override
+    public void insertHierarchyLinks(List<AssetClosureEntity> links) {
+        log.debug("AssetBulkRepositoryImpl:insertHierarchyLinks: Inserting {} hierarchy links", links.size());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_LINK)) {
+                int batched = 0;
+                for (AssetClosureEntity link : links) {
+                    statement.setString(1, link.getAncestorId().toString());
+                    statement.setString(2, link.getDescendantId().toString());
+                    statement.setInt(3, link.getDepth());
+                    batched = addBatch(statement, batched);
+                }
+                executeBatch(statement, batched);
+            }
+        });
+    }
+
+    @Override
+    public List<UUID> promoteByIds(List<UUID> ids) {
+        log.debug("AssetBulkRepositoryImpl:promoteByIds: Promoting {} assets", ids.size());
+        entityManager.flush();
+        // Chunks run in key order, as the parallel promotion does, so overlapping promotions take row locks in one order.
+        List<UUID> sortedIds = new ArrayList<>(ids);
+        sortedIds.sort(UniqueIdentifierOrder.COMPARATOR);
+        Set<UUID> promotedIds = new HashSet<>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            boolean sqlServer = connection.getMetaData().getDatabaseProductName().startsWith(SQL_SERVER);
+            for (int from = 0; from < sortedIds.size(); from += PROMOTE_CHUNK_SIZE) {
+                List<UUID> chunk = sortedIds.subList(from, Math.min(from + PROMOTE_CHUNK_SIZE, sortedIds.size()));
+                promotedIds.addAll(sqlServer ? promoteReturningIds(connection, chunk) : lockAndPromote(connection, chunk));
+            }
+        });
+        // Entities loaded before still hold the old flag and version.
+        entityManager.clear();
+        return ids.stream().filter(promotedIds::contains).collect(Collectors.toList());
+    }
+
+    private static List<UUID> promoteReturningIds(Connection connection, List<UUID> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(String.format(PROMOTE_ASSETS_RETURNING_IDS, placeholders(ids.size())))) {
+            statement.setBoolean(1, true);
+            int index = setIds(statement, 2, ids);
+            statement.setBoolean(index, true);
+            return readIds(statement);
+        }
+    }
+
+    /**
+     * Databases without OUTPUT lock the rows first. Once this transaction holds the locks, a concurrent promotion has
+     * either committed or waits, so the unpromoted rows read next are exactly the rows the update flips.
+     */
+    private static List<UUID> lockAndPromote(Connection connection, List<UUID> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(String.format(LOCK_ASSETS, placeholders(ids.size())))) {
+            setIds(statement, 1, ids);
+            readIds(statement);
+        }
+        List<UUID> unpromotedIds;
+        try (PreparedStatement statement = connection.prepareStatement(String.format(SELECT_UNPROMOTED_ASSETS, placeholders(ids.size())))) {
+            int index = setIds(statement, 1, ids);
+            statement.setBoolean(index, true);
+            unpromotedIds = readIds(statement);
+        }
+        if (unpromotedIds.isEmpty()) {
+            return unpromotedIds;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(String.format(PROMOTE_ASSETS, placeholders(unpromotedIds.size())))) {
+            statement.setBoolean(1, true);
+            int index = setIds(statement, 2, unpromotedIds);
+            statement.setBoolean(index, true);
+            statement.executeUpdate();
+        }
+        return unpromotedIds;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * @return the index of the parameter after the ids.
+     */
+    private static int setIds(PreparedStatement statement, int index, List<UUID> ids) throws SQLException {
+        for (UUID id : ids) {
+            statement.setString(index++, id.toString());
+        }
+        return index;
+    }
+
+    private static List<UUID> readIds(PreparedStatement statement) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(UUID.fromString(resultSet.getString(1)));
+            }
+        }
+        return ids;
+    }
+
+    private static int addBatch(PreparedStatement statement, int batched) throws SQLException {
+        statement.addBatch();
+        if (batched + 1 < JDBC_BATCH_SIZE) {
+            return batched + 1;
+        }
+        statement.executeBatch();
+        return 0;
+    }
+
+    private static void executeBatch(PreparedStatement statement, int batched) throws SQLException {
+        if (batched > 0) {
+            statement.executeBatch();
+        }
+    }
+}
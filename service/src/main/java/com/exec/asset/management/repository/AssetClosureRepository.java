@@ -0,0 +1,28 @@
+package com.exec.asset.management.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.exec.asset.management.domain.entities.AssetClosureEntity;
+
+@Repository
+public interface AssetClosureRepository extends JpaRepository<AssetClosureEntity, AssetClosureEntity.AssetClosureId> {
+
+    List<AssetClosureEntity> findByDescendantIdAndDepthLessThanEqual(UUID descendantId, Integer depth);
+
+    List<AssetClosureEntity> findByDescendantIdIn(Collection<UUID> descendantIds);
+
+    boolean existsByAncestorIdAndDescendantId(UUID ancestorId, UUID descendantId);
+
+    @Query("select c.descendantId from AssetClosureEntity c where c.ancestorId = :ancestorId and c.depth <= :maxDepth order by c.depth")
+    List<UUID> findDescendantIds(@Param("ancestorId") UUID ancestorId, @Param("maxDepth") int maxDepth);
+
+    @Query("select c.ancestorId from AssetClosureEntity c where c.descendantId = :descendantId and c.depth > 0 order by c.depth")
+    List<UUID> findAncestorIds(@Param("descendantId") UUID descendantId);
+}
@@ -0,0 +1,61 @@
+package com.exec.asset.management.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Set-based maintenance of the asset_closure table that cannot be expressed as derived or JPQL queries.
+ * Each operation is a fixed number of statements regardless of the size or depth of the affected subtree.
+ */
+public interface AssetHierarchyRepository {
+
+    /**
+     * Adds a new asset to the hierarchy below the given parent.
+     * @param id of the asset to add.
+     * @param parentId of the parent asset, may be null for a root asset.
+     */
+    void insertHierarchyNode(UUID id, UUID parentId);
+
+    /**
+     * Adds new assets that share a parent to the hierarchy. Reads the parent's links once and inserts the links of
+     * the new assets through the persistence context, so they are written in JDBC batches on flush.
+     * @param parentId of the parent asset, may be null for root assets.
+     * @param ids of the assets to add.
+     */
+    void insertHierarchyNodes(UUID parentId, Collection<UUID> ids);
+
+    /**
+     * Moves the subtree rooted at the given asset below a new parent. The new parent must not be part of the subtree.
+     * @param id of the subtree root.
+     * @param parentId of the new parent asset, may be null to make the subtree a tree of its own.
+     */
+    void moveHierarchySubtree(UUID id, UUID parentId);
+
+    /**
+     * Moves several subtrees below the same new parent. The subtrees must not be nested in each other and the new
+     * parent must not be part of any of them.
+     * @param parentId of the new parent asset, may be null to make each subtree a tree of its own.
+     * @param ids of the subtree roots.
+     */
+    void moveHierarchySubtrees(UUID parentId, Collection<UUID> ids);
+
+    /**
+     * Removes an asset from the hierarchy, linking its descendants to its ancestors.
+     * @param id of the asset to remove.
+     */
+    void removeHierarchyNode(UUID id);
+
+    /**
+     * Links the remaining children of the given assets to their nearest ancestor that is not one of the given assets,
+     * or makes them roots when there is none. Has to run before the assets are removed from the hierarchy.
+     * @param ids of the assets that are about to be removed.
+     * @return the number of children that were re-linked.
+     */
+    int reparentChildrenOfHierarchyNodes(Collection<UUID> ids);
+
+    /**
+     * Removes several assets from the hierarchy, linking their descendants to their remaining ancestors.
+     * @param ids of the assets to remove.
+     */
+    void removeHierarchyNodes(Collection<UUID> ids);
+}
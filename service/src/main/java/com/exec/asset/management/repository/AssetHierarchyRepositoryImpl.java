@@ -0,0 +1,173 @@
+package com.exec.asset.management.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.domain.entities.AssetClosureEntity;
+
+@Slf4j
+@Transactional
+public class AssetHierarchyRepositoryImpl implements AssetHierarchyRepository {
+
+    private static final String INSERT_SELF_LINK =
+            "INSERT INTO asset_closure (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)";
+
+    private static final String INSERT_ANCESTOR_LINKS =
+            "INSERT INTO asset_closure (ancestor_id, descendant_id, depth)"
+                    + " SELECT p.ancestor_id, :id, p.depth + 1 FROM asset_closure p WHERE p.descendant_id = :parentId";
+
+    private static final String SELECT_LINKS_TO_NODE =
+            "select c from AssetClosureEntity c where c.descendantId = :parentId";
+
+    // Drops every link from an ancestor outside of the subtree to a node inside of it.
+    private static final String DETACH_SUBTREE =
+            "DELETE FROM asset_closure"
+                    + " WHERE descendant_id IN (SELECT s.descendant_id FROM asset_closure s WHERE s.ancestor_id = :id)"
+                    + " AND ancestor_id NOT IN (SELECT s.descendant_id FROM asset_closure s WHERE s.ancestor_id = :id)";
+
+    // Links every ancestor of the new parent to every node of the subtree.
+    private static final String ATTACH_SUBTREE =
+            "INSERT INTO asset_closure (ancestor_id, descendant_id, depth)"
+                    + " SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1"
+                    + " FROM asset_closure p, asset_closure s WHERE p.descendant_id = :parentId AND s.ancestor_id = :id";
+
+    // As DETACH_SUBTREE, the subtrees are disjoint so an ancestor inside of any of them is inside of the node's own.
+    private static final String DETACH_SUBTREES =
+            "DELETE FROM asset_closure"
+                    + " WHERE descendant_id IN (SELECT s.descendant_id FROM asset_closure s WHERE s.ancestor_id IN (:ids))"
+                    + " AND ancestor_id NOT IN (SELECT s.descendant_id FROM asset_closure s WHERE s.ancestor_id IN (:ids))";
+
+    private static final String ATTACH_SUBTREES =
+            "INSERT INTO asset_closure (ancestor_id, descendant_id, depth)"
+                    + " SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1"
+                    + " FROM asset_closure p, asset_closure s WHERE p.descendant_id = :parentId AND s.ancestor_id IN (:ids)";
+
+    // Pairs that went through the removed node are now one level closer.
+    private static final String SHORTEN_PATHS_THROUGH_NODE =
+            "UPDATE asset_closure SET depth = depth - 1"
+                    + " WHERE ancestor_id IN (SELECT a.ancestor_id FROM asset_closure a WHERE a.descendant_id = :id AND a.depth > 0)"
+                    + " AND descendant_id IN (SELECT d.descendant_id FROM asset_closure d WHERE d.ancestor_id = :id AND d.depth > 0)";
+
+    private static final String DELETE_NODE_LINKS =
+            "DELETE FROM asset_closure WHERE ancestor_id = :id OR descendant_id = :id";
+
+    // The new parent is the nearest ancestor that is not removed, there is one link per ancestor and depth.
+    private static final String REPARENT_CHILDREN_OF_NODES =
+            "UPDATE assets SET parent_id = (SELECT c.ancestor_id FROM asset_closure c WHERE c.descendant_id = assets.id AND c.depth ="
+                    + " (SELECT MIN(m.depth) FROM asset_closure m WHERE m.descendant_id = assets.id AND m.depth > 0 AND m.ancestor_id NOT IN (:ids)))"
+                    + ", version = version + 1 WHERE parent_id IN (:ids) AND id NOT IN (:ids)";
+
+    // Every remaining pair gets one level closer for each removed node between the two.
+    private static final String SHORTEN_PATHS_THROUGH_NODES =
+            "UPDATE asset_closure SET depth = depth - (SELECT COUNT(*) FROM asset_closure ar, asset_closure rd"
+                    + " WHERE ar.ancestor_id = asset_closure.ancestor_id AND rd.descendant_id = asset_closure.descendant_id"
+                    + " AND ar.descendant_id = rd.ancestor_id AND ar.depth > 0 AND rd.depth > 0 AND ar.descendant_id IN (:ids))"
+                    + " WHERE ancestor_id IN (SELECT a.ancestor_id FROM asset_closure a WHERE a.descendant_id IN (:ids) AND a.depth > 0)"
+                    + " AND descendant_id IN (SELECT d.descendant_id FROM asset_closure d WHERE d.ancestor_id IN (:ids) AND d.depth > 0)"
+                    + " AND ancestor_id NOT IN (:ids) AND descendant_id NOT IN (:ids)";
+
+    private static final String DELETE_NODES_LINKS =
+            "DELETE FROM asset_closure WHERE ancestor_id IN (:ids) OR descendant_id IN (:ids)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertHierarchyNode(UUID id, UUID parentId) {
+        log.debug("AssetHierarchyRepositoryImpl:insertHierarchyNode: Adding asset id: {} below parent id: {}", id, parentId);
+        entityManager.createNativeQuery(INSERT_SELF_LINK)
+                .setParameter("id", id.toString())
+                .executeUpdate();
+        if (parentId != null) {
+            entityManager.createNativeQuery(INSERT_ANCESTOR_LINKS)
+                    .setParameter("id", id.toString())
+                    .setParameter("parentId", parentId.toString())
+                    .executeUpdate();
+        }
+    }
+
+    @Override
+    public void insertHierarchyNodes(UUID parentId, Collection<UUID> ids) {
+        log.debug("AssetHierarchyRepositoryImpl:insertHierarchyNodes: Adding {} assets below parent id: {}", ids.size(), parentId);
+        List<AssetClosureEntity> parentLinks = parentId == null ? List.of() : entityManager.createQuery(SELECT_LINKS_TO_NODE, AssetClosureEntity.class)
+                .setParameter("parentId", parentId)
+                .getResultList();
+        for (UUID id : ids) {
+            entityManager.persist(new AssetClosureEntity(id, id, 0));
+            parentLinks.forEach(parentLink -> entityManager.persist(new AssetClosureEntity(parentLink.getAncestorId(), id, parentLink.getDepth() + 1)));
+        }
+    }
+
+    @Override
+    public void moveHierarchySubtree(UUID id, UUID parentId) {
+        log.debug("AssetHierarchyRepositoryImpl:moveHierarchySubtree: Moving subtree of asset id: {} below parent id: {}", id, parentId);
+        entityManager.createNativeQuery(DETACH_SUBTREE)
+                .setParameter("id", id.toString())
+                .executeUpdate();
+        if (parentId == null) {
+            return;
+        }
+        entityManager.createNativeQuery(ATTACH_SUBTREE)
+                .setParameter("id", id.toString())
+                .setParameter("parentId", parentId.toString())
+                .executeUpdate();
+    }
+
+    @Override
+    public void moveHierarchySubtrees(UUID parentId, Collection<UUID> ids) {
+        log.debug("AssetHierarchyRepositoryImpl:moveHierarchySubtrees: Moving {} subtrees below parent id: {}", ids.size(), parentId);
+        entityManager.createNativeQuery(DETACH_SUBTREES)
+                .setParameter("ids", toStrings(ids))
+                .executeUpdate();
+        if (parentId == null) {
+            return;
+        }
+        entityManager.createNativeQuery(ATTACH_SUBTREES)
+                .setParameter("ids", toStrings(ids))
+                .setParameter("parentId", parentId.toString())
+                .executeUpdate();
+    }
+
+    @Override
+    public void removeHierarchyNode(UUID id) {
+        log.debug("AssetHierarchyRepositoryImpl:removeHierarchyNode: Removing asset id: {} from the hierarchy", id);
+        entityManager.createNativeQuery(SHORTEN_PATHS_THROUGH_NODE)
+                .setParameter("id", id.toString())
+                .executeUpdate();
+        entityManager.createNativeQuery(DELETE_NODE_LINKS)
+                .setParameter("id", id.toString())
+                .executeUpdate();
+    }
+
+    @Override
+    public int reparentChildrenOfHierarchyNodes(Collection<UUID> ids) {
+        log.debug("AssetHierarchyRepositoryImpl:reparentChildrenOfHierarchyNodes: Re-linking the children of {} assets", ids.size());
+        return entityManager.createNativeQuery(REPARENT_CHILDREN_OF_NODES)
+                .setParameter("ids", toStrings(ids))
+                .executeUpdate();
+    }
+
+    @Override
+    public void removeHierarchyNodes(Collection<UUID> ids) {
+        log.debug("AssetHierarchyRepositoryImpl:removeHierarchyNodes: Removing {} assets from the hierarchy", ids.size());
+        entityManager.createNativeQuery(SHORTEN_PATHS_THROUGH_NODES)
+                .setParameter("ids", toStrings(ids))
+                .executeUpdate();
+        entityManager.createNativeQuery(DELETE_NODES_LINKS)
+                .setParameter("ids", toStrings(ids))
+                .executeUpdate();
+    }
+
+    private static List<String> toStrings(Collection<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.toList());
+    }
+}
@@ -1,15 +1,104 @@
 package com.exec.asset.management.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.etag.AssetVersion;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
 
 @Repository
-public interface AssetRepository extends JpaRepository<AssetEntity, UUID> {
+public interface AssetRepository extends JpaRepository<AssetEntity, UUID>, AssetHierarchyRepository, AssetBulkRepository {
 
     List<AssetEntity> findByParentId(UUID parentId);
+
+    /**
+     * Reads a page without counting all assets, one more asset than the page size is read to tell whether there is a
+     * next page.
+     */
+    Slice<AssetEntity> findAllBy(Pageable pageable);
+
+    /**
+     * Reads the page following the asset with the given id, seeking to it through the primary key instead of
+     * skipping the assets before it. The pageable has to sort by id.
+     */
+    Slice<AssetEntity> findByIdGreaterThan(UUID id, Pageable pageable);
+
+    @Query("select a.version from AssetEntity a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Like {@link #findAllBy(Pageable)}, reading only ids and versions.
+     */
+    @Query("select new com.exec.asset.management.domain.etag.AssetVersion(a.id, a.version) from AssetEntity a")
+    Slice<AssetVersion> findVersionsBy(Pageable pageable);
+
+    /**
+     * Like {@link #findByIdGreaterThan(UUID, Pageable)}, reading only ids and versions.
+     */
+    @Query("select new com.exec.asset.management.domain.etag.AssetVersion(a.id, a.version) from AssetEntity a where a.id > :id")
+    Slice<AssetVersion> findVersionsByIdGreaterThan(@Param("id") UUID id, Pageable pageable);
+
+    @Query("select new com.exec.asset.management.domain.hierarchy.AssetNode(a.id, a.parentId, c.depth) from AssetClosureEntity c, AssetEntity a"
+            + " where a.id = c.descendantId and c.ancestorId = :rootId and c.depth <= :maxDepth and (a.promoted = false or a.promoted is null)")
+    List<AssetNode> findUnpromotedSubtree(@Param("rootId") UUID rootId, @Param("maxDepth") int maxDepth);
+
+    /**
+     * Streams id, parent id and promoted flag of every asset without loading the entities. Has to be consumed inside
+     * a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a.id, a.parentId, a.promoted from AssetEntity a")
+    Stream<Object[]> streamHierarchy();
+
+    /**
+     * Streams the assets nested below the given root, nearest first. The assets are built from their columns and are
+     * not attached to the persistence context, so memory use does not grow with the size of the subtree. Has to be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.exec.asset.management.domain.entities.AssetEntity(a.id, a.promoted, a.parentId) from AssetClosureEntity c, AssetEntity a"
+            + " where a.id = c.descendantId and c.ancestorId = :rootId and c.depth between 1 and :maxDepth order by c.depth")
+    Stream<AssetEntity> streamDescendants(@Param("rootId") UUID rootId, @Param("maxDepth") int maxDepth);
+
+    /**
+     * Streams every asset in one forward-only pass. The assets are built from their columns and are not attached to the
+     * persistence context. The rows are narrow, so a larger fetch size saves round trips without much memory. Has to be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select new com.exec.asset.management.domain.entities.AssetEntity(a.id, a.promoted, a.parentId) from AssetEntity a")
+    Stream<AssetEntity> streamAll();
+
+    /**
+     * Reads the given assets without attaching them to the persistence context.
+     */
+    @Query("select new com.exec.asset.management.domain.entities.AssetEntity(a.id, a.promoted, a.parentId, a.version) from AssetEntity a where a.id in :ids")
+    List<AssetEntity> findDetachedByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.exec.asset.management.domain.entities.AssetEntity(a.id, a.promoted, a.parentId) from AssetClosureEntity c, AssetEntity a"
+            + " where a.id = c.ancestorId and c.descendantId = :id and c.depth > 0 order by c.depth")
+    List<AssetEntity> findAncestors(@Param("id") UUID id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AssetEntity a set a.parentId = :parentId, a.version = a.version + 1 where a.parentId = :id")
+    int reparentChildren(@Param("id") UUID id, @Param("parentId") UUID parentId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AssetEntity a where a.id in :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,30 @@
+package com.exec.asset.management.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.domain.entities.OutboxEventEntity;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, UUID> {
+
+    /**
+     * Reads the oldest events, so events are relayed in the order they were written.
+     */
+    @Query("select e from OutboxEventEntity e order by e.createdAt, e.id")
+    List<OutboxEventEntity> findOldest(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEventEntity e where e.id in :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,72 @@
+package com.exec.asset.management.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.domain.entities.PromotionJobEntity;
+
+@Repository
+public interface PromotionJobRepository extends JpaRepository<PromotionJobEntity, UUID> {
+
+    /**
+     * @return the jobs with one of the given statuses that no instance holds a lease on.
+     */
+    @Query("select j from PromotionJobEntity j where j.status in :statuses and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+    List<PromotionJobEntity> findUnleased(@Param("statuses") Collection<PromotionJobEntity.Status> statuses, @Param("now") Instant now);
+
+    /**
+     * Takes over a job with one of the given statuses unless another instance holds a lease on it.
+     * @return 0 when the job is leased by another instance or has finished.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update PromotionJobEntity j set j.owner = :owner, j.leaseExpiresAt = :leaseExpiresAt where j.id = :id and j.status in :statuses"
+            + " and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+    int claim(@Param("id") UUID id, @Param("statuses") Collection<PromotionJobEntity.Status> statuses, @Param("owner") String owner,
+            @Param("now") Instant now, @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    /**
+     * @return 0 when the job is owned by another instance or has finished.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PromotionJobEntity j set j.leaseExpiresAt = :leaseExpiresAt where j.id = :id and j.owner = :owner and j.status in :statuses")
+    int renewLease(@Param("id") UUID id, @Param("statuses") Collection<PromotionJobEntity.Status> statuses, @Param("owner") String owner,
+            @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    /**
+     * Starts or resumes a job. Assets that failed in an earlier run are still unpromoted and therefore part of the
+     * remaining work again. This and the following updates only change jobs the given owner still owns.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update PromotionJobEntity j set j.status = :status, j.totalCount = j.processedCount + :remaining, j.failedCount = 0 where j.id = :id and j.owner = :owner")
+    int start(@Param("id") UUID id, @Param("owner") String owner, @Param("status") PromotionJobEntity.Status status, @Param("remaining") long remaining);
+
+    @Transactional
+    @Modifying
+    @Query("update PromotionJobEntity j set j.processedCount = j.processedCount + :count where j.id = :id and j.owner = :owner")
+    int addProcessed(@Param("id") UUID id, @Param("owner") String owner, @Param("count") long count);
+
+    @Transactional
+    @Modifying
+    @Query("update PromotionJobEntity j set j.failedCount = j.failedCount + :count where j.id = :id and j.owner = :owner")
+    int addFailed(@Param("id") UUID id, @Param("owner") String owner, @Param("count") long count);
+
+    /**
+     * Finishes a job and releases its lease.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update PromotionJobEntity j set j.status = :status, j.leaseExpiresAt = null where j.id = :id and j.owner = :owner")
+    int updateStatus(@Param("id") UUID id, @Param("owner") String owner, @Param("status") PromotionJobEntity.Status status);
+}
@@ -2,17 +2,32 @@ package com.exec.asset.management.service.controller;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.exec.asset.management.api.model.AssetListModel;
 import com.exec.asset.management.api.model.AssetModel;
@@ -20,82 +35,264 @@ import com.exec.asset.management.api.model.MetaModel;
 import com.exec.asset.management.api.model.PageMetaModel;
 import com.exec.asset.management.api.model.PagedAssetsModel;
 import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.etag.AssetVersion;
+import com.exec.asset.management.domain.etag.ConditionalRead;
+import com.exec.asset.management.domain.export.AssetExportFormat;
+import com.exec.asset.management.domain.promotion.AssetUpdate;
+import com.exec.asset.management.domain.promotion.PromotionJobStart;
 import com.exec.asset.management.exception.AssetDoesNotExistException;
 import com.exec.asset.management.exception.AssetIdCannotBeNullException;
+import com.exec.asset.management.exception.AssetPreconditionFailedException;
+import com.exec.asset.management.exception.AssetUpdateConflictException;
+import com.exec.asset.management.exception.InvalidCursorException;
 import com.exec.asset.management.exception.MismatchedIds;
 import com.exec.asset.management.exception.ParentAssetDoesNotExistException;
 import com.exec.asset.management.exception.ParentAssetRequiredException;
 import com.exec.asset.management.mapper.AssetMapper;
-import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.promotion.AssetPromotionService;
 import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.util.ETags;
+import com.exec.asset.management.util.JsonLinesResource;
+import com.exec.asset.management.util.JsonUtils;
+import com.exec.asset.management.util.LinesResource;
+import com.exec.asset.management.util.TransactionUtils;
 
 @Service
 @Transactional
 @Slf4j
 public class AssetControllerService {
+    private static final int CURSOR_LENGTH = 16;
+    // Writes that lost against a concurrent change are repeated on fresh reads this many times before giving up.
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final byte[] CSV_HEADER = "id,promoted,parentId".getBytes(StandardCharsets.UTF_8);
 
     private AssetRepositoryService assetRepositoryService;
     private AssetMapper assetMapper;
-    private AssetPublisherService assetPublisherService;
+    private AssetPromotionService assetPromotionService;
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate updateTransactionTemplate;
 
     @Autowired
-    public AssetControllerService(AssetRepositoryService assetRepositoryService, AssetMapper assetMapper, AssetPublisherService assetPublisherService) {
+    public AssetControllerService(AssetRepositoryService assetRepositoryService, AssetMapper assetMapper, AssetPromotionService assetPromotionService,
+            PlatformTransactionManager transactionManager) {
         this.assetRepositoryService = assetRepositoryService;
         this.assetMapper = assetMapper;
-        this.assetPublisherService = assetPublisherService;
+        this.assetPromotionService = assetPromotionService;
+        this.transactionManager = transactionManager;
+        this.updateTransactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public PagedAssetsModel getPagedAssets(PageRequest pageRequest) {
-        return pagedAssetsResponse(assetRepositoryService.getAllAssets(pageRequest));
+    @Transactional(readOnly = true)
+    public PagedAssetsModel getPagedAssets(PageRequest pageRequest, String cursor, boolean includeTotalCount) {
+        return getPagedAssets(pageRequest, cursor, includeTotalCount, null).getBody();
     }
 
+    /**
+     * Without a cursor the page is read by its number, with a cursor it is the page following the asset the cursor
+     * points to, found through the primary key however deep the page is. With If-None-Match only the ids and versions
+     * of the page are read first, the assets are only read and mapped when the page changed.
+     * @param pageRequest page number and size, the assets have to be sorted by id.
+     * @param cursor the next cursor of the previous page or null.
+     * @param includeTotalCount whether to count all assets, which takes longer the more assets there are.
+     * @param ifNoneMatch the If-None-Match header or null.
+     */
+    @Transactional(readOnly = true)
+    public ConditionalRead<PagedAssetsModel> getPagedAssets(PageRequest pageRequest, String cursor, boolean includeTotalCount, String ifNoneMatch) {
+        UUID lastId = cursor == null ? null : decodeCursor(cursor);
+        if (ifNoneMatch != null) {
+            Slice<AssetVersion> assetVersions = lastId == null
+                    ? assetRepositoryService.getAssetVersionSlice(pageRequest)
+                    : assetRepositoryService.getAssetVersionsAfter(lastId, pageRequest.getPageSize());
+            String eTag = ETags.ofPage(assetVersions.getContent(), assetVersions.hasNext(), includeTotalCount ? assetRepositoryService.countAssets() : null);
+            if (ETags.noneMatchHeaderMatches(ifNoneMatch, eTag)) {
+                log.debug("AssetControllerService:getPagedAssets: Page has not changed, ETag: {}", eTag);
+                return ConditionalRead.notModified(eTag);
+            }
+        }
+
+        PageMetaModel pageMeta = new PageMetaModel();
+        pageMeta.setPageSize(pageRequest.getPageSize());
+        Slice<AssetEntity> assetEntities;
+
+        if (lastId != null) {
+            assetEntities = assetRepositoryService.getAssetsAfter(lastId, pageRequest.getPageSize());
+            if (includeTotalCount) {
+                pageMeta.setTotalCount(assetRepositoryService.countAssets());
+            }
+        }
+        else if (includeTotalCount) {
+            Page<AssetEntity> page = assetRepositoryService.getAllAssets(pageRequest);
+            pageMeta.setPageNumber(pageRequest.getPageNumber());
+            pageMeta.setTotalCount(page.getTotalElements());
+            assetEntities = page;
+        }
+        else {
+            assetEntities = assetRepositoryService.getAssetSlice(pageRequest);
+            pageMeta.setPageNumber(pageRequest.getPageNumber());
+        }
+
+        if (assetEntities.hasNext()) {
+            List<AssetEntity> content = assetEntities.getContent();
+            pageMeta.setNextCursor(encodeCursor(content.get(content.size() - 1).getId()));
+        }
+        List<AssetVersion> assetVersions = assetEntities.stream()
+                .map(assetEntity -> new AssetVersion(assetEntity.getId(), assetEntity.getVersion()))
+                .collect(Collectors.toList());
+        return new ConditionalRead<>(ETags.ofPage(assetVersions, assetEntities.hasNext(), pageMeta.getTotalCount()), pagedAssetsResponse(assetEntities, pageMeta));
+    }
+
+    /**
+     * The returned resource reads every asset of the tenant from a database cursor while it is written to the
+     * response, in a transaction of its own. Only the asset being written is held in memory. The number of assets and
+     * the rate they were written at are logged once the export ends.
+     * @param format of the export.
+     * @return the assets, one per line.
+     */
+    @Transactional(readOnly = true)
+    public Resource exportAssets(AssetExportFormat format) {
+        log.debug("AssetControllerService:exportAssets: Exporting all assets as {}", format);
+        Supplier<Stream<AssetEntity>> assets = () -> {
+            long start = System.nanoTime();
+            AtomicLong exported = new AtomicLong();
+            return TransactionUtils.streamInReadOnlyTransaction(transactionManager, assetRepositoryService::streamAllAssets)
+                    .peek(assetEntity -> exported.incrementAndGet())
+                    .onClose(() -> logExport(format, exported.get(), System.nanoTime() - start));
+        };
+        if (format == AssetExportFormat.CSV) {
+            return new LinesResource<>(CSV_HEADER, AssetControllerService::toCsvLine, assets);
+        }
+        return new JsonLinesResource<>(JsonUtils.objectWriter(AssetModel.class), () -> assets.get().map(assetMapper::mapAssetEntityToAssetModel));
+    }
+
+    @Transactional(readOnly = true)
     public AssetModel getAssetById(UUID assetId) {
-        return assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.findAssetById(assetId).orElseThrow(() -> new AssetDoesNotExistException(assetId)));
+        return getAssetById(assetId, null).getBody();
+    }
+
+    /**
+     * With If-None-Match only the version of the asset is read first, the asset is only read and mapped when it
+     * changed.
+     * @param assetId id of the asset.
+     * @param ifNoneMatch the If-None-Match header or null.
+     */
+    @Transactional(readOnly = true)
+    public ConditionalRead<AssetModel> getAssetById(UUID assetId, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String eTag = ETags.ofAsset(assetRepositoryService.findAssetVersion(assetId).orElseThrow(() -> new AssetDoesNotExistException(assetId)));
+            if (ETags.noneMatchHeaderMatches(ifNoneMatch, eTag)) {
+                log.debug("AssetControllerService:getAssetById: Asset with id: {} has not changed, ETag: {}", assetId, eTag);
+                return ConditionalRead.notModified(eTag);
+            }
+        }
+        AssetEntity assetEntity = assetRepositoryService.findAssetById(assetId).orElseThrow(() -> new AssetDoesNotExistException(assetId));
+        return new ConditionalRead<>(ETags.ofAsset(assetEntity.getVersion()), assetMapper.mapAssetEntityToAssetModel(assetEntity));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AssetModel> getAncestors(UUID assetId) {
+        return assetRepositoryService.getAncestors(assetId).stream()
+                .map(assetMapper::mapAssetEntityToAssetModel)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The returned resource reads the descendants from a database cursor while it is written to the response, in a
+     * transaction of its own as this method's transaction is over by then.
+     * @param assetId id of the asset whose descendants are returned.
+     * @param maxDepth the number of levels below the asset to include, all levels when null.
+     * @return the descendants as newline delimited JSON, nearest first.
+     */
+    @Transactional(readOnly = true)
+    public Resource getDescendants(UUID assetId, Integer maxDepth) {
+        if (assetRepositoryService.findAssetById(assetId).isEmpty()) {
+            throw new AssetDoesNotExistException(assetId);
+        }
+        int depth = Objects.requireNonNullElse(maxDepth, Integer.MAX_VALUE);
+        log.debug("AssetControllerService:getDescendants: Streaming descendants of asset id: {} up to depth: {}", assetId, depth);
+        return new JsonLinesResource<>(JsonUtils.objectWriter(AssetModel.class), () -> TransactionUtils.streamInReadOnlyTransaction(transactionManager,
+                () -> assetRepositoryService.streamDescendants(assetId, depth).map(assetMapper::mapAssetEntityToAssetModel)));
     }
 
     public void deleteAssetById(UUID assetId) {
         assetRepositoryService.deleteAsset(assetId);
     }
 
+    public void deleteAssetsByIds(List<UUID> assetIds) {
+        int deleted = assetRepositoryService.deleteAssets(assetIds);
+        log.debug("AssetControllerService:deleteAssetsByIds: Deleted {} of {} assets", deleted, assetIds.size());
+    }
+
+    /**
+     * Creates the parent asset and links the child assets to it. Existing children are looked up with one query per
+     * chunk of ids and all children are written with a single batched saveAll, which moves the existing children with
+     * a fixed number of statements per chunk of ids. The number of statements grows with the number of JDBC batches
+     * rather than with the number of children, unless existing children are nested in each other and are moved one
+     * by one.
+     * @param assetCreationModel the parent asset to create and the child assets to create or re-link.
+     * @return the created parent asset and the created or updated child assets.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AssetListModel createAssetFromList(AssetListModel assetCreationModel) {
+        return retryOnConflict(null, () -> createAssets(assetCreationModel));
+    }
+
+    private AssetListModel createAssets(AssetListModel assetCreationModel) {
         UUID parentId = null;
         AssetListModel returnModels = new AssetListModel();
 
         if (assetCreationModel.getParentAsset() != null) {
-            log.debug("AssetControllerService:createAssetFromList: Creating parent Asset");
+            log.debug("AssetControllerService:createAssets: Creating parent Asset");
             AssetModel parentModel = createAsset(assetCreationModel.getParentAsset());
             returnModels.setParentAsset(parentModel);
             parentId = parentModel.getId();
         }
 
         if (assetCreationModel.getChildAssets() != null) {
-            UUID finalParentId = parentId;
-            assetCreationModel.getChildAssets().stream().forEach(assetModel -> {
-                if (assetModel.getId() == null) {
-                    log.debug("AssetControllerService:createAssetFromList: No id on child asset so we don't need to check if it exists.");
-                    assetModel.setParentId(finalParentId);
-                    returnModels.addChildAssetsItem(createAsset(assetModel));
-                }
-                else {
-                    // We are setting the parent id to the id of the parent model we just created.
-                    assetRepositoryService.findAssetById(assetModel.getId()).ifPresentOrElse(assetEntity -> {
-                        log.debug("AssetControllerService:createAssetFromList: Found child asset so just updating parent id to: {}", finalParentId);
-                        assetEntity.setParentId(finalParentId);
-                        assetRepositoryService.saveAsset(assetEntity);
-                        returnModels.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(assetEntity));
-                    }, () -> {
-                        log.debug("AssetControllerService:createAssetFromList: No child asset found for id so creating new entity");
-                        assetModel.setParentId(finalParentId);
-                        returnModels.addChildAssetsItem(createAsset(assetModel));
-                    });
+            List<AssetModel> childModels = assetCreationModel.getChildAssets();
+            Map<UUID, AssetEntity> existingChildren = assetRepositoryService.findAllAssetsById(childModels.stream()
+                            .map(AssetModel::getId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(AssetEntity::getId, Function.identity()));
+            log.debug("AssetControllerService:createAssets: Found {} of {} child assets, creating the others", existingChildren.size(), childModels.size());
+
+            List<AssetEntity> childEntities = new ArrayList<>(childModels.size());
+            for (AssetModel childModel : childModels) {
+                // Children without an id or with an unknown id are created, the others are linked to the parent.
+                AssetEntity childEntity = childModel.getId() == null ? null : existingChildren.get(childModel.getId());
+                if (childEntity == null) {
+                    childEntity = assetMapper.mapAssetModelToAssetEntity(childModel);
                 }
-            });
+                childEntity.setParentId(parentId);
+                childEntities.add(childEntity);
+            }
+            assetRepositoryService.saveAll(childEntities).forEach(savedEntity -> returnModels.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(savedEntity)));
         }
 
         return returnModels;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AssetModel updateAssetList(AssetListModel assetListModel, UUID assetId) {
+        return updateAssetList(assetListModel, assetId, false, null).getAsset();
+    }
+
+    /**
+     * Updates an asset and re-links the passed in child assets to it. If the asset gets promoted its nested assets
+     * are promoted as well, either within this transaction or by a background promotion job. An update that conflicts
+     * with a concurrent change of the same assets is repeated in a new transaction, up to {@link #MAX_UPDATE_ATTEMPTS}
+     * times in all.
+     * @param assetListModel the asset to update and the child assets to link to it.
+     * @param assetId id of the asset to update.
+     * @param promoteAsynchronously whether nested assets are promoted by a background promotion job.
+     * @param ifMatch the If-Match header or null, the asset is only updated while its ETag matches it.
+     * @return the updated asset and the id of the promotion job if one was started.
+     * @throws AssetUpdateConflictException when every attempt conflicted.
+     * @throws AssetPreconditionFailedException when the ETag of the asset does not match If-Match.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AssetUpdate updateAssetList(AssetListModel assetListModel, UUID assetId, boolean promoteAsynchronously, String ifMatch) {
         AssetModel parentModel = assetListModel.getParentAsset();
         if (parentModel == null) {
             throw new ParentAssetRequiredException();
@@ -103,16 +300,29 @@ public class AssetControllerService {
         if (!assetId.equals(parentModel.getId())) {
             throw new MismatchedIds(parentModel.getId(), assetId);
         }
+        return retryOnConflict(assetId, () -> updateAsset(assetListModel, assetId, promoteAsynchronously, ifMatch));
+    }
 
-        log.debug("AssetControllerService:updateAssetList: Updating asset with id: {}", assetId);
+    private AssetUpdate updateAsset(AssetListModel assetListModel, UUID assetId, boolean promoteAsynchronously, String ifMatch) {
+        AssetModel parentModel = assetListModel.getParentAsset();
+        log.debug("AssetControllerService:updateAsset: Updating asset with id: {}", assetId);
         AssetEntity assetEntity = assetRepositoryService.findAssetById(assetId).orElseThrow(() -> new AssetDoesNotExistException(assetId));
+        // Reject cycles before anything is written or promoted.
+        assetRepositoryService.verifyParentIsNotNested(assetId, parentModel.getParentId());
+        // Everything below is decided on the asset as read, the final save of the asset fails if it has been changed since.
+        String eTag = ETags.ofAsset(assetEntity.getVersion());
+        if (ifMatch != null && !ETags.matchHeaderMatches(ifMatch, eTag)) {
+            throw new AssetPreconditionFailedException(assetId, eTag);
+        }
 
         if (assetListModel.getChildAssets() != null) {
-            log.debug("AssetControllerService:updateAssetList: Updating child entities passed in to have the parent id updated.");
+            log.debug("AssetControllerService:updateAsset: Updating child entities passed in to have the parent id updated.");
             assetListModel.getChildAssets().forEach(assetModel -> {
                 if (assetModel.getId() == null) {
                     throw new AssetIdCannotBeNullException();
                 }
+                // The child must not be the asset itself or one of its ancestors.
+                assetRepositoryService.verifyParentIsNotNested(assetModel.getId(), assetId);
                 AssetEntity updateEntity = assetRepositoryService.findAssetById(assetModel.getId()).orElseThrow(() -> new AssetDoesNotExistException(assetModel.getId()));
                 updateEntity.setParentId(assetId);
                 assetRepositoryService.saveAsset(updateEntity);
@@ -121,14 +331,60 @@ public class AssetControllerService {
 
         // This is under the assumption if we modify an existing asset we shouldn't call promote children if the entity was previously promoted.
         // If this assumption is wrong then the if statement would change to assetModel.getPromoted()
+        UUID promotionJobId = null;
         if (!assetEntity.getPromoted() && parentModel.getPromoted()) {
-            log.debug("AssetControllerService:updateAssetList: Promoting the asset and its child assets.");
-            promoteChildAssets(assetEntity);
+            List<UUID> promotedIds;
+            if (promoteAsynchronously) {
+                log.debug("AssetControllerService:updateAsset: Promoting the asset and starting a promotion job for its child assets.");
+                PromotionJobStart promotionJobStart = assetPromotionService.promoteAssetAndStartNestedPromotionJob(assetId);
+                promotedIds = promotionJobStart.getPromotedIds();
+                promotionJobId = promotionJobStart.getJobId();
+            }
+            else {
+                log.debug("AssetControllerService:updateAsset: Promoting the asset and its child assets.");
+                promotedIds = assetPromotionService.promoteAssetAndNestedAssets(assetId);
+            }
+            assetEntity = versionAfterPromotion(assetEntity, promotedIds);
         }
 
         assetEntity = setParentIdIfValid(assetEntity, parentModel.getParentId());
         assetEntity.setPromoted(parentModel.getPromoted());
-        return assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(assetEntity));
+        return new AssetUpdate(assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(assetEntity)), promotionJobId);
+    }
+
+    /**
+     * The promotion incremented the version of the asset with a bulk update if it flipped its flag. Saving at the
+     * version read plus that increment still fails if the asset was changed in any other way since. If a concurrent
+     * promotion flipped the flag instead, the current version is read, the save then only fails if the asset changed
+     * after that.
+     */
+    private AssetEntity versionAfterPromotion(AssetEntity assetEntity, List<UUID> promotedIds) {
+        UUID assetId = assetEntity.getId();
+        if (promotedIds.contains(assetId)) {
+            return new AssetEntity(assetId, assetEntity.getPromoted(), assetEntity.getParentId(), assetEntity.getVersion() + 1);
+        }
+        long currentVersion = assetRepositoryService.findAssetVersion(assetId).orElseThrow(() -> new AssetDoesNotExistException(assetId));
+        return new AssetEntity(assetId, assetEntity.getPromoted(), assetEntity.getParentId(), currentVersion);
+    }
+
+    /**
+     * Runs the given write in a transaction of its own and repeats it with fresh reads if it lost against a
+     * concurrent change, which is detected when an asset is written with an outdated version. The callers do not
+     * support transactions, so every attempt starts a new transaction and no row stays locked between attempts.
+     * @param assetId id of the updated asset for the error, null if there is none.
+     */
+    private <T> T retryOnConflict(UUID assetId, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return updateTransactionTemplate.execute(status -> write.get());
+            }
+            catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw new AssetUpdateConflictException(assetId, attempt);
+                }
+                log.debug("AssetControllerService:retryOnConflict: Attempt {} conflicted with a concurrent change, retrying: {}", attempt, e.getMessage());
+            }
+        }
     }
 
     private AssetModel createAsset(AssetModel assetModel) {
@@ -148,60 +404,45 @@ public class AssetControllerService {
         return assetEntity;
     }
 
-    private void promoteChildAssets(AssetEntity assetEntity) {
-        log.debug("AssetControllerService:promoteChildAssets: Promoting child assets and asset with id {}", assetEntity.getId());
-        // Update the asset and its nested assets
-        List<UUID> usedUuids = new ArrayList<>();
-        promoteAssetAndNestedAssets(assetEntity, usedUuids);
+    private PagedAssetsModel pagedAssetsResponse(Slice<AssetEntity> assetEntities, PageMetaModel pageMeta) {
+        return new PagedAssetsModel().meta(new MetaModel().page(pageMeta))
+                .count(assetEntities.getNumberOfElements())
+                .entities(assetEntities.stream().map(assetEntity -> assetMapper.mapAssetEntityToAssetModel(assetEntity))
+                        .collect(Collectors.toList()));
     }
 
-    private void promoteAssetAndNestedAssets(AssetEntity asset, List<UUID> usedUuids) {
-        log.debug("AssetControllerService:promoteAssetAndNestedAssets: Attempting to promote asset id {} previously promoted: {}", asset.getId(), asset.getPromoted());
-        /*
-         * If an asset was already promoted previously we don't need to promote it again.
-         * We still have to search its children though since they could have been added
-         * after the asset was promoted.
-         */
-        if (!asset.getPromoted()) {
-            log.debug("AssetControllerService:promoteAssetAndNestedAssets: Promoting asset with id {}", asset.getId());
-            asset.setPromoted(true);
-            assetRepositoryService.saveAsset(asset);
-            // Publish message to the asset.events.asset-promoted topic.
-            assetPublisherService.publishAssetPromotedEvent(assetMapper.mapAssetEntityToAssetPromotionEventModel(asset));
-        }
-
-        // Lets make sure that the id that we are using wasn't already used to find children.
-        // So we avoid a circular dependency which would make us loop indefinitely.
-        if (usedUuids.contains(asset.getId())) {
-            log.debug("AssetControllerService:promoteAssetAndNestedAssets: Found a circling dependency so returning. Asset id: {} Parent id: ", asset.getId(), asset.getParentId());
-            return;
-        }
-
-        // add the asset id to a list of asset ids that we have previously traversed.
-        usedUuids.add(asset.getId());
-        List<AssetEntity> nestedAssets = assetRepositoryService.getAssetsByParentId(asset.getId());
-
-        if (nestedAssets.isEmpty()) {
-            log.debug("AssetControllerService:promoteAssetAndNestedAssets: No child assets for parentId: {}", asset.getId());
-            return;
-        }
-        log.debug("AssetControllerService:promoteAssetAndNestedAssets: Found child assets number: {} parentId: {}", nestedAssets.size(), asset.getId());
-        // Would want to make this parallel at some point but deadlocks occur since a thread would update the child asset while another is trying to use that asset.
-        nestedAssets.forEach(nestedAsset -> promoteAssetAndNestedAssets(nestedAsset, usedUuids));
-
+    private static byte[] toCsvLine(AssetEntity assetEntity) {
+        String line = assetEntity.getId() + "," + Objects.toString(assetEntity.getPromoted(), "") + "," + Objects.toString(assetEntity.getParentId(), "");
+        return line.getBytes(StandardCharsets.UTF_8);
     }
 
-    private PagedAssetsModel pagedAssetsResponse(Page<AssetEntity> assetEntities) {
-        Pageable pageable = assetEntities.getPageable();
-        PageMetaModel pageMeta = new PageMetaModel();
-        pageMeta.setPageNumber(pageable.getPageNumber());
-        pageMeta.setPageSize(pageable.getPageSize());
-        pageMeta.setTotalCount(assetEntities.getTotalElements());
+    private static void logExport(AssetExportFormat format, long exported, long nanos) {
+        long millis = Math.max(TimeUnit.NANOSECONDS.toMillis(nanos), 1);
+        log.info("AssetControllerService:exportAssets: Exported {} assets as {} in {} ms, {} assets/s", exported, format, millis, exported * 1000 / millis);
+    }
 
-        return new PagedAssetsModel().meta(new MetaModel().page(pageMeta))
-                .count(assetEntities.getNumberOfElements())
-                .entities(assetEntities.stream().map(assetEntity -> assetMapper.mapAssetEntityToAssetModel(assetEntity))
-                        .collect(Collectors.toList()));
+    /**
+     * The cursor is the id of the last asset of a page, encoded so that clients do not rely on its contents.
+     */
+    private static String encodeCursor(UUID lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_LENGTH)
+                .putLong(lastId.getMostSignificantBits())
+                .putLong(lastId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
     }
 
+    private static UUID decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+        if (bytes.length != CURSOR_LENGTH) {
+            throw new InvalidCursorException(cursor);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
 }
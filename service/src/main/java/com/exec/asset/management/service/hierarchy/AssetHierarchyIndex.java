@@ -0,0 +1,430 @@
+package com.exec.asset.management.service.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.exec.asset.management.domain.hierarchy.AssetNode;
+
+/**
+ * In-memory parent/children adjacency of the assets of one tenant.
+ * <p/>
+ * Every asset occupies a slot in a set of parallel primitive arrays: the two halves of its id, the slots of its
+ * parent, first child and siblings, and its promoted flag. Ids are looked up through an open addressing hash table
+ * of slot numbers with linear probing, so no {@link UUID} or boxed object is kept per asset. That is about 40 bytes
+ * per asset at the 0.5 load factor (16 for the id, 16 for the links, 8 for the hash table), or roughly 400 MB for
+ * 10 million assets, plus up to twice that right after the arrays grew.
+ * <p/>
+ * A parent id that does not belong to an indexed asset gets a placeholder slot, so its children can still be found.
+ * Placeholders are released as soon as they have no children left. The index is safe for concurrent use, reads share
+ * a lock and writes take it exclusively.
+ */
+public class AssetHierarchyIndex {
+
+    private static final int NONE = -1;
+    private static final int EMPTY = 0;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] mostSignificantBits;
+    private long[] leastSignificantBits;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] previousSiblings;
+    private final BitSet allocated = new BitSet();
+    private final BitSet present = new BitSet();
+    private final BitSet promoted = new BitSet();
+    private int slotCount;
+    private int freeSlot = NONE;
+    private int size;
+
+    // Slot number + 1 of the asset hashed to each position, EMPTY for free positions.
+    private int[] table;
+    private int tableMask;
+
+    /**
+     * @param expectedSize number of assets the index is sized for up front.
+     */
+    public AssetHierarchyIndex(int expectedSize) {
+        int capacity = Math.max(MINIMUM_CAPACITY, expectedSize);
+        mostSignificantBits = new long[capacity];
+        leastSignificantBits = new long[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        previousSiblings = new int[capacity];
+        table = new int[tableCapacityFor(capacity)];
+        tableMask = table.length - 1;
+    }
+
+    /**
+     * Adds an asset or updates its parent and promoted flag.
+     */
+    public void put(UUID id, UUID parentId, boolean isPromoted) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotOrPlaceholder(id);
+            if (!present.get(slot)) {
+                present.set(slot);
+                size++;
+            }
+            promoted.set(slot, isPromoted);
+            int parentSlot = parentId == null ? NONE : slotOrPlaceholder(parentId);
+            if (parents[slot] != parentSlot) {
+                unlink(slot);
+                link(slot, parentSlot);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an asset, its children become children of its parent.
+     */
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == NONE || !present.get(slot)) {
+                return;
+            }
+            int parentSlot = parents[slot];
+            for (int child = firstChildren[slot]; child != NONE; child = firstChildren[slot]) {
+                unlink(child);
+                link(child, parentSlot);
+            }
+            present.clear(slot);
+            promoted.clear(slot);
+            size--;
+            unlink(slot);
+            releaseIfUnused(slot);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markPromoted(Collection<UUID> ids) {
+        lock.writeLock().lock();
+        try {
+            for (UUID id : ids) {
+                int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                if (slot != NONE && present.get(slot)) {
+                    promoted.set(slot);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(UUID id) {
+        lock.readLock().lock();
+        try {
+            return presentSlot(id) != NONE;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the children of the given asset, empty when it has none or is not indexed.
+     */
+    public List<UUID> getChildIds(UUID id) {
+        lock.readLock().lock();
+        try {
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == NONE) {
+                return Collections.emptyList();
+            }
+            List<UUID> childIds = new ArrayList<>();
+            for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+                childIds.add(idOf(child));
+            }
+            return childIds;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id of the subtree root.
+     * @param maxDepth the number of levels below the root to include, 0 only returns the root itself.
+     * @return ids of the root and its descendants ordered by distance from the root, empty when the root is not indexed.
+     */
+    public List<UUID> getDescendantIds(UUID id, int maxDepth) {
+        List<UUID> descendantIds = new ArrayList<>();
+        visitSubtree(id, maxDepth, (slot, depth) -> descendantIds.add(idOf(slot)));
+        return descendantIds;
+    }
+
+    /**
+     * @param id of the subtree root.
+     * @param maxDepth the number of levels below the root to include, 0 only considers the root itself.
+     * @return the unpromoted nodes of the subtree ordered by distance from the root.
+     */
+    public List<AssetNode> getUnpromotedSubtree(UUID id, int maxDepth) {
+        List<AssetNode> unpromotedNodes = new ArrayList<>();
+        visitSubtree(id, maxDepth, (slot, depth) -> {
+            if (!promoted.get(slot)) {
+                unpromotedNodes.add(new AssetNode(idOf(slot), parents[slot] == NONE ? null : idOf(parents[slot]), depth));
+            }
+        });
+        return unpromotedNodes;
+    }
+
+    /**
+     * @return ids of the asset's indexed ancestors ordered from its parent up to the root of its tree.
+     */
+    public List<UUID> getAncestorIds(UUID id) {
+        lock.readLock().lock();
+        try {
+            int slot = presentSlot(id);
+            if (slot == NONE) {
+                return Collections.emptyList();
+            }
+            List<UUID> ancestorIds = new ArrayList<>();
+            for (int parent = parents[slot]; parent != NONE && present.get(parent) && ancestorIds.size() < size; parent = parents[parent]) {
+                ancestorIds.add(idOf(parent));
+            }
+            return ancestorIds;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return approximate heap used by the index's arrays.
+     */
+    public long estimatedSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long slotBytes = (long) mostSignificantBits.length * (2 * Long.BYTES + 4 * Integer.BYTES);
+            long bitSetBytes = 3L * allocated.size() / Byte.SIZE;
+            return slotBytes + (long) table.length * Integer.BYTES + bitSetBytes;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void visitSubtree(UUID id, int maxDepth, SlotVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int root = presentSlot(id);
+            if (root == NONE) {
+                return;
+            }
+            int[] level = {root};
+            int levelSize = 1;
+            for (int depth = 0; levelSize > 0; depth++) {
+                int[] nextLevel = new int[MINIMUM_CAPACITY];
+                int nextLevelSize = 0;
+                for (int i = 0; i < levelSize; i++) {
+                    int slot = level[i];
+                    visitor.visit(slot, depth);
+                    if (depth == maxDepth) {
+                        continue;
+                    }
+                    for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+                        if (nextLevelSize == nextLevel.length) {
+                            nextLevel = Arrays.copyOf(nextLevel, nextLevel.length * 2);
+                        }
+                        nextLevel[nextLevelSize++] = child;
+                    }
+                }
+                level = nextLevel;
+                levelSize = nextLevelSize;
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int presentSlot(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return slot != NONE && present.get(slot) ? slot : NONE;
+    }
+
+    private UUID idOf(int slot) {
+        return new UUID(mostSignificantBits[slot], leastSignificantBits[slot]);
+    }
+
+    private void link(int slot, int parentSlot) {
+        parents[slot] = parentSlot;
+        previousSiblings[slot] = NONE;
+        if (parentSlot == NONE) {
+            nextSiblings[slot] = NONE;
+            return;
+        }
+        int first = firstChildren[parentSlot];
+        nextSiblings[slot] = first;
+        if (first != NONE) {
+            previousSiblings[first] = slot;
+        }
+        firstChildren[parentSlot] = slot;
+    }
+
+    private void unlink(int slot) {
+        int parentSlot = parents[slot];
+        if (parentSlot == NONE) {
+            return;
+        }
+        int previous = previousSiblings[slot];
+        int next = nextSiblings[slot];
+        if (previous == NONE) {
+            firstChildren[parentSlot] = next;
+        }
+        else {
+            nextSiblings[previous] = next;
+        }
+        if (next != NONE) {
+            previousSiblings[next] = previous;
+        }
+        parents[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+        releaseIfUnused(parentSlot);
+    }
+
+    private void releaseIfUnused(int slot) {
+        if (present.get(slot) || firstChildren[slot] != NONE || parents[slot] != NONE) {
+            return;
+        }
+        removeKey(slot);
+        allocated.clear(slot);
+        nextSiblings[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private int slotOrPlaceholder(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = find(msb, lsb);
+        return slot == NONE ? allocate(msb, lsb) : slot;
+    }
+
+    private int allocate(long msb, long lsb) {
+        int slot;
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = nextSiblings[slot];
+        }
+        else {
+            if (slotCount == mostSignificantBits.length) {
+                growSlots();
+            }
+            slot = slotCount++;
+        }
+        mostSignificantBits[slot] = msb;
+        leastSignificantBits[slot] = lsb;
+        parents[slot] = NONE;
+        firstChildren[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+        allocated.set(slot);
+        insertKey(slot);
+        return slot;
+    }
+
+    private void growSlots() {
+        int capacity = mostSignificantBits.length * 2;
+        mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+        leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        previousSiblings = Arrays.copyOf(previousSiblings, capacity);
+        if (tableCapacityFor(capacity) > table.length) {
+            rehash(tableCapacityFor(capacity));
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        for (int position = hash(msb, lsb) & tableMask; table[position] != EMPTY; position = (position + 1) & tableMask) {
+            int slot = table[position] - 1;
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    private void insertKey(int slot) {
+        int position = hash(mostSignificantBits[slot], leastSignificantBits[slot]) & tableMask;
+        while (table[position] != EMPTY) {
+            position = (position + 1) & tableMask;
+        }
+        table[position] = slot + 1;
+    }
+
+    // Backward shift deletion keeps every probe sequence intact without tombstones.
+    private void removeKey(int slot) {
+        int position = hash(mostSignificantBits[slot], leastSignificantBits[slot]) & tableMask;
+        while (table[position] != slot + 1) {
+            position = (position + 1) & tableMask;
+        }
+        table[position] = EMPTY;
+        int gap = position;
+        for (int next = (gap + 1) & tableMask; table[next] != EMPTY; next = (next + 1) & tableMask) {
+            int home = hash(mostSignificantBits[table[next] - 1], leastSignificantBits[table[next] - 1]) & tableMask;
+            boolean homeBetweenGapAndNext = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (!homeBetweenGapAndNext) {
+                table[gap] = table[next];
+                table[next] = EMPTY;
+                gap = next;
+            }
+        }
+    }
+
+    private void rehash(int tableCapacity) {
+        table = new int[tableCapacity];
+        tableMask = tableCapacity - 1;
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            insertKey(slot);
+        }
+    }
+
+    private static int tableCapacityFor(int slots) {
+        // Power of two holding the slots at a load factor of at most 0.5.
+        return Integer.highestOneBit(Math.max(MINIMUM_CAPACITY, slots) - 1) << 2;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        void visit(int slot, int depth);
+    }
+}
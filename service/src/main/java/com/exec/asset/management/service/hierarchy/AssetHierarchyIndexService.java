@@ -0,0 +1,227 @@
+package com.exec.asset.management.service.hierarchy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.config.HierarchyIndexProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+/**
+ * Holds an {@link AssetHierarchyIndex} per tenant. Indexes are built in the background from the asset table, at
+ * startup for the current tenant and on first use for any other. Until an index is ready lookups return nothing and
+ * callers fall back to the database.
+ * <p/>
+ * Writes made in a transaction are kept with the transaction and applied to the index once it commits, so other
+ * transactions never see uncommitted changes and a rolled back transaction leaves the index as it was. A transaction
+ * with pending writes gets no index and reads its own writes from the database.
+ */
+@Service
+@Slf4j
+public class AssetHierarchyIndexService {
+
+    private final HierarchyIndexProperties hierarchyIndexProperties;
+    private final AssetRepository assetRepository;
+    private final MultiTenantIdentifierResolver multiTenantIdentifierResolver;
+    private final TransactionTemplate readTransactionTemplate;
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-hierarchy-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, AssetHierarchyIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> writeCounts = new ConcurrentHashMap<>();
+    private final Set<String> tenantsBeingBuilt = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public AssetHierarchyIndexService(HierarchyIndexProperties hierarchyIndexProperties, AssetRepository assetRepository,
+            MultiTenantIdentifierResolver multiTenantIdentifierResolver, PlatformTransactionManager transactionManager) {
+        this.hierarchyIndexProperties = hierarchyIndexProperties;
+        this.assetRepository = assetRepository;
+        this.multiTenantIdentifierResolver = multiTenantIdentifierResolver;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.readTransactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (hierarchyIndexProperties.isEnabled()) {
+            scheduleBuild(multiTenantIdentifierResolver.resolveCurrentTenantIdentifier());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the current tenant's index, empty when the index is disabled or not built yet, or when the current
+     * transaction wrote assets it has not committed.
+     */
+    public Optional<AssetHierarchyIndex> getIndex() {
+        if (!hierarchyIndexProperties.isEnabled() || currentPendingChanges().isPresent()) {
+            return Optional.empty();
+        }
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        AssetHierarchyIndex index = indexes.get(tenantId);
+        if (index == null) {
+            scheduleBuild(tenantId);
+        }
+        return Optional.ofNullable(index);
+    }
+
+    public void assetSaved(AssetEntity assetEntity) {
+        // Read now, the entity may still change before the transaction commits.
+        UUID id = assetEntity.getId();
+        UUID parentId = assetEntity.getParentId();
+        boolean isPromoted = Boolean.TRUE.equals(assetEntity.getPromoted());
+        write(index -> index.put(id, parentId, isPromoted));
+    }
+
+    public void assetDeleted(UUID id) {
+        write(index -> index.remove(id));
+    }
+
+    public void assetsPromoted(Collection<UUID> ids) {
+        List<UUID> promotedIds = List.copyOf(ids);
+        write(index -> index.markPromoted(promotedIds));
+    }
+
+    /**
+     * Builds the given tenant's index on the calling thread, replacing the current one.
+     * @return true when the index is ready, false when every attempt was overtaken by writes.
+     */
+    public boolean build(String tenantId) {
+        AtomicLong writeCount = writeCount(tenantId);
+        for (int attempt = 1; attempt <= hierarchyIndexProperties.getMaxBuildAttempts(); attempt++) {
+            long writesBeforeBuild = writeCount.get();
+            AssetHierarchyIndex index = new AssetHierarchyIndex(hierarchyIndexProperties.getInitialCapacity());
+            readTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = assetRepository.streamHierarchy()) {
+                    rows.forEach(row -> index.put((UUID) row[0], (UUID) row[1], Boolean.TRUE.equals(row[2])));
+                }
+            });
+            if (writeCount.get() == writesBeforeBuild) {
+                indexes.put(tenantId, index);
+                log.info("AssetHierarchyIndexService:build: Indexed {} assets for tenant: {} using about {} bytes", index.size(), tenantId, index.estimatedSizeInBytes());
+                return true;
+            }
+            log.debug("AssetHierarchyIndexService:build: Assets of tenant: {} changed during attempt: {}, starting over", tenantId, attempt);
+        }
+        log.warn("AssetHierarchyIndexService:build: Gave up indexing tenant: {} after {} attempts", tenantId, hierarchyIndexProperties.getMaxBuildAttempts());
+        return false;
+    }
+
+    private void scheduleBuild(String tenantId) {
+        if (!tenantsBeingBuilt.add(tenantId)) {
+            return;
+        }
+        buildExecutor.execute(() -> {
+            try {
+                build(tenantId);
+            }
+            catch (RuntimeException e) {
+                log.error("AssetHierarchyIndexService:scheduleBuild: Failed to index tenant: {}", tenantId, e);
+            }
+            finally {
+                tenantsBeingBuilt.remove(tenantId);
+            }
+        });
+    }
+
+    private void write(Consumer<AssetHierarchyIndex> change) {
+        if (!hierarchyIndexProperties.isEnabled()) {
+            return;
+        }
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(tenantId, List.of(change));
+            return;
+        }
+        currentPendingChanges().orElseGet(() -> {
+            PendingChanges pendingChanges = new PendingChanges(tenantId);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+            return pendingChanges;
+        }).changes.add(change);
+    }
+
+    /**
+     * Looked up among the synchronizations rather than bound as a resource, so a transaction suspended for a new one
+     * takes its pending changes with it.
+     */
+    private Optional<PendingChanges> currentPendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        return TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization instanceof PendingChanges && ((PendingChanges) synchronization).belongsTo(this))
+                .map(PendingChanges.class::cast)
+                .findFirst();
+    }
+
+    /**
+     * Counts the write before applying it. A build that read the table before the write committed then starts over,
+     * a build that already replaced the index gets the write applied.
+     */
+    private void apply(String tenantId, List<Consumer<AssetHierarchyIndex>> changes) {
+        writeCount(tenantId).incrementAndGet();
+        AssetHierarchyIndex index = indexes.get(tenantId);
+        if (index != null) {
+            log.debug("AssetHierarchyIndexService:apply: Applying {} committed changes to the index of tenant: {}", changes.size(), tenantId);
+            changes.forEach(change -> change.accept(index));
+        }
+    }
+
+    private AtomicLong writeCount(String tenantId) {
+        return writeCounts.computeIfAbsent(tenantId, key -> new AtomicLong());
+    }
+
+    /**
+     * The changes a transaction applies to the index once it commits.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        private final String tenantId;
+        private final List<Consumer<AssetHierarchyIndex>> changes = new ArrayList<>();
+
+        PendingChanges(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        boolean belongsTo(AssetHierarchyIndexService service) {
+            return service == AssetHierarchyIndexService.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(tenantId, changes);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.exec.asset.management.service.hierarchy;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.exec.asset.management.config.LineageCacheProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded cache of asset lineages, the ancestors of an asset from its parent up to the root of its tree, per tenant.
+ * A lineage is dropped when any asset on it, or the asset itself, is moved, promoted or deleted. The cached assets
+ * are shared between requests and must not be modified.
+ */
+@Component
+@Slf4j
+public class AssetLineageCache {
+
+    private final MultiTenantIdentifierResolver multiTenantIdentifierResolver;
+    private final Cache<LineageKey, List<AssetEntity>> lineages;
+
+    @Autowired
+    public AssetLineageCache(LineageCacheProperties lineageCacheProperties, MultiTenantIdentifierResolver multiTenantIdentifierResolver) {
+        this.multiTenantIdentifierResolver = multiTenantIdentifierResolver;
+        this.lineages = Caffeine.newBuilder()
+                .maximumSize(lineageCacheProperties.getMaximumSize())
+                .expireAfterWrite(lineageCacheProperties.getExpireAfterWrite())
+                .build();
+    }
+
+    /**
+     * @param id of the asset.
+     * @param loader reads the lineage when it is not cached, nothing is cached when it throws.
+     * @return the cached or loaded lineage.
+     */
+    public List<AssetEntity> getAncestors(UUID id, Function<UUID, List<AssetEntity>> loader) {
+        return lineages.get(new LineageKey(multiTenantIdentifierResolver.resolveCurrentTenantIdentifier(), id),
+                key -> List.copyOf(loader.apply(key.getAssetId())));
+    }
+
+    /**
+     * Drops the lineages that contain the given asset, right away and again once the current transaction commits so
+     * a lineage read by a concurrent request in between is not kept either.
+     * @param id of the asset that was moved, promoted or deleted.
+     */
+    public void invalidate(UUID id) {
+        invalidateAll(Set.of(id));
+    }
+
+    /**
+     * @param ids of the assets that were moved, promoted or deleted.
+     */
+    public void invalidateAll(Collection<UUID> ids) {
+        if (ids.isEmpty() || lineages.estimatedSize() == 0) {
+            return;
+        }
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Set<UUID> changedIds = ids instanceof Set ? (Set<UUID>) ids : new HashSet<>(ids);
+        removeLineagesContaining(tenantId, changedIds);
+        TransactionUtils.runAfterCommit(() -> removeLineagesContaining(tenantId, changedIds));
+    }
+
+    private void removeLineagesContaining(String tenantId, Set<UUID> changedIds) {
+        lineages.asMap().entrySet().removeIf(entry -> tenantId.equals(entry.getKey().getTenantId())
+                && (changedIds.contains(entry.getKey().getAssetId()) || entry.getValue().stream().anyMatch(ancestor -> changedIds.contains(ancestor.getId()))));
+        log.debug("AssetLineageCache:removeLineagesContaining: {} lineages left after invalidating {} assets", lineages.estimatedSize(), changedIds.size());
+    }
+
+    @Value
+    private static class LineageKey {
+        String tenantId;
+        UUID assetId;
+    }
+}
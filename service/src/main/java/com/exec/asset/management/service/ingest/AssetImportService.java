@@ -0,0 +1,96 @@
+package com.exec.asset.management.service.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.api.model.AssetImportChunkModel;
+import com.exec.asset.management.api.model.AssetImportSummaryModel;
+import com.exec.asset.management.api.model.AssetModel;
+import com.exec.asset.management.config.ImportProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.util.JsonUtils;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Imports assets from a newline delimited JSON stream. Records are parsed one at a time and committed in chunks, so
+ * only the current chunk is held in memory however large the stream is.
+ */
+@Service
+@Slf4j
+public class AssetImportService {
+
+    private static final ObjectReader ASSET_READER = JsonUtils.objectMapper().readerFor(AssetModel.class);
+
+    private final AssetRepositoryService assetRepositoryService;
+    private final AssetMapper assetMapper;
+    private final ImportProperties importProperties;
+    private final TransactionTemplate chunkTransactionTemplate;
+
+    @Autowired
+    public AssetImportService(AssetRepositoryService assetRepositoryService, AssetMapper assetMapper, ImportProperties importProperties,
+            PlatformTransactionManager transactionManager) {
+        this.assetRepositoryService = assetRepositoryService;
+        this.assetMapper = assetMapper;
+        this.importProperties = importProperties;
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Commits every chunk in a transaction of its own. The first chunk that cannot be read, parsed or written is rolled
+     * back and ends the import, the chunks before it stay committed. The failed chunk is the last one of the summary.
+     * @param inputStream of newline delimited asset records.
+     * @return the outcome of every chunk that was processed.
+     */
+    public AssetImportSummaryModel importAssets(InputStream inputStream) {
+        AssetImportSummaryModel summary = new AssetImportSummaryModel().importedCount(0L).chunks(new ArrayList<>());
+        long firstRecord = 1;
+        try (MappingIterator<AssetModel> records = ASSET_READER.readValues(inputStream)) {
+            for (int chunkNumber = 1; ; chunkNumber++) {
+                List<AssetEntity> chunk = new ArrayList<>(importProperties.getChunkSize());
+                AssetImportChunkModel chunkSummary = new AssetImportChunkModel().chunkNumber(chunkNumber).firstRecord(firstRecord);
+                try {
+                    while (chunk.size() < importProperties.getChunkSize() && records.hasNextValue()) {
+                        chunk.add(assetMapper.mapImportedAssetModelToAssetEntity(records.nextValue()));
+                    }
+                    if (chunk.isEmpty()) {
+                        return summary;
+                    }
+                    chunkTransactionTemplate.executeWithoutResult(status -> assetRepositoryService.importAssets(chunk));
+                }
+                catch (IOException | RuntimeException e) {
+                    log.warn("AssetImportService:importAssets: Chunk: {} starting at record: {} failed", chunkNumber, firstRecord, e);
+                    summary.addChunksItem(chunkSummary.recordCount(chunk.size()).status(AssetImportChunkModel.StatusEnum.FAILED).error(e.getMessage()));
+                    return summary;
+                }
+                log.debug("AssetImportService:importAssets: Committed chunk: {} with {} assets", chunkNumber, chunk.size());
+                summary.addChunksItem(chunkSummary.recordCount(chunk.size()).status(AssetImportChunkModel.StatusEnum.IMPORTED));
+                summary.setImportedCount(summary.getImportedCount() + chunk.size());
+                firstRecord += chunk.size();
+            }
+        }
+        catch (IOException e) {
+            log.warn("AssetImportService:importAssets: Could not read the import stream", e);
+            // Failing to open or close the stream ends the import like a failed chunk, unless a chunk failed already.
+            List<AssetImportChunkModel> chunks = summary.getChunks();
+            if (chunks.isEmpty() || chunks.get(chunks.size() - 1).getStatus() != AssetImportChunkModel.StatusEnum.FAILED) {
+                summary.addChunksItem(new AssetImportChunkModel().chunkNumber(chunks.size() + 1).firstRecord(firstRecord).recordCount(0)
+                        .status(AssetImportChunkModel.StatusEnum.FAILED).error(e.getMessage()));
+            }
+            return summary;
+        }
+    }
+
+}
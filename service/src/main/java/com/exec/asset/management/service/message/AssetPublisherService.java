@@ -1,30 +1,86 @@
 package com.exec.asset.management.service.message;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.exec.asset.management.config.PromotionProperties;
 import com.exec.asset.management.domain.messages.AssetAggregateEvent;
 import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.domain.messages.AssetsPromotedEventModel;
 import com.exec.asset.management.event.publisher.KafkaMessagingSystemService;
+import com.exec.asset.management.mapper.OutboxEventMapper;
+import com.exec.asset.management.repository.OutboxEventRepository;
 
+/**
+ * Writes events to the outbox in the transaction that changed the assets. {@link OutboxRelay} publishes them once the
+ * transaction committed, so requests do not wait for the broker and rolled back changes publish nothing.
+ */
 @Service
 public class AssetPublisherService {
 
     private final KafkaMessagingSystemService kafkaMessagingSystemService;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final OutboxRelay outboxRelay;
+    private final PromotionProperties promotionProperties;
 
     @Autowired
-    public AssetPublisherService(KafkaMessagingSystemService kafkaMessagingSystemService) {
+    public AssetPublisherService(KafkaMessagingSystemService kafkaMessagingSystemService, OutboxEventRepository outboxEventRepository,
+            OutboxEventMapper outboxEventMapper, OutboxRelay outboxRelay, PromotionProperties promotionProperties) {
         this.kafkaMessagingSystemService = kafkaMessagingSystemService;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventMapper = outboxEventMapper;
+        this.outboxRelay = outboxRelay;
+        this.promotionProperties = promotionProperties;
     }
 
     public void publishAssetPromotedEvent(AssetPromotionEventModel assetPromotionEventModel) {
-        kafkaMessagingSystemService.send(
-                AssetAggregateEvent.builder()
-                        .aggregate(assetPromotionEventModel)
-                        .assetId(assetPromotionEventModel.getAssetId().toString())
-                        .parentId(String.valueOf(assetPromotionEventModel.getParentId()))
-                        .eventName(AssetPromotionEventModel.CREATED_EVENT_NAME)
+        publish(AssetAggregateEvent.builder()
+                .aggregate(assetPromotionEventModel)
+                .assetId(assetPromotionEventModel.getAssetId().toString())
+                .parentId(String.valueOf(assetPromotionEventModel.getParentId()))
+                .eventName(AssetPromotionEventModel.CREATED_EVENT_NAME)
+                .mediaType(AssetPromotionEventModel.MEDIA_TYPE)
+                .msgSysTopic(AssetPromotionEventModel.TOPIC_NAME)
+                .build());
+    }
+
+    /**
+     * Publishes the events of assets promoted together in the format of {@link PromotionProperties#getEventFormat()}.
+     * Batched events carry up to {@link PromotionProperties#getEventBatchSize()} assets each and are keyed by the root
+     * id, so the batches of a promotion keep their order.
+     * @param rootId id of the asset whose promotion promoted the assets.
+     * @param promotedAssets the promoted assets.
+     */
+    public void publishAssetsPromotedEvents(UUID rootId, List<AssetPromotionEventModel> promotedAssets) {
+        PromotionProperties.EventFormat eventFormat = promotionProperties.getEventFormat();
+        if (eventFormat.includesPerAsset()) {
+            promotedAssets.forEach(this::publishAssetPromotedEvent);
+        }
+        if (eventFormat.includesBatched()) {
+            for (int from = 0; from < promotedAssets.size(); from += promotionProperties.getEventBatchSize()) {
+                List<AssetsPromotedEventModel.PromotedAsset> batch = promotedAssets.subList(from, Math.min(from + promotionProperties.getEventBatchSize(), promotedAssets.size()))
+                        .stream()
+                        .map(assetPromotionEventModel -> new AssetsPromotedEventModel.PromotedAsset(assetPromotionEventModel.getAssetId(), assetPromotionEventModel.getParentId()))
+                        .collect(Collectors.toList());
+                publish(AssetAggregateEvent.builder()
+                        .aggregate(new AssetsPromotedEventModel(rootId, batch))
+                        .assetId(rootId.toString())
+                        .eventName(AssetsPromotedEventModel.CREATED_EVENT_NAME)
+                        .mediaType(AssetsPromotedEventModel.MEDIA_TYPE)
+                        .partitionKey(rootId.toString())
                         .msgSysTopic(AssetPromotionEventModel.TOPIC_NAME)
                         .build());
+            }
+        }
+    }
+
+    private void publish(AssetAggregateEvent assetAggregateEvent) {
+        outboxEventRepository.save(outboxEventMapper.mapAssetAggregateEventEntityToOutboxEventEntity(kafkaMessagingSystemService.mapToEntity(assetAggregateEvent)));
+        outboxRelay.wakeUpAfterCommit();
     }
 }
@@ -0,0 +1,181 @@
+package com.exec.asset.management.service.message;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.exec.asset.management.config.OutboxProperties;
+import com.exec.asset.management.domain.entities.OutboxEventEntity;
+import com.exec.asset.management.event.publisher.KafkaMessagingSystemService;
+import com.exec.asset.management.mapper.OutboxEventMapper;
+import com.exec.asset.management.repository.OutboxEventRepository;
+import com.exec.asset.management.util.TransactionUtils;
+
+/**
+ * Publishes the events of the outbox table. The oldest events are read in batches and sent without waiting for each
+ * acknowledgement, the acknowledged ones are then deleted with bulk deletes.
+ * <p/>
+ * An event stays in the outbox until the broker acknowledged it and every event before it, so no event of a committed
+ * transaction is lost when the relay or the broker fails, and a retried event is not delivered after its successors. An event may be sent again when the relay fails between sending and deleting it, or
+ * when several instances relay at the same time. It keeps its event id, which consumers use to drop the copies.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    // Keeps IN lists well below the SQL Server limit of 2100 parameters per statement.
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final OutboxProperties outboxProperties;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final KafkaMessagingSystemService kafkaMessagingSystemService;
+    private final TransactionTemplate outboxTransactionTemplate;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ExecutorService relayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public OutboxRelay(OutboxProperties outboxProperties, OutboxEventRepository outboxEventRepository, OutboxEventMapper outboxEventMapper,
+            KafkaMessagingSystemService kafkaMessagingSystemService, PlatformTransactionManager transactionManager) {
+        this.outboxProperties = outboxProperties;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventMapper = outboxEventMapper;
+        this.kafkaMessagingSystemService = kafkaMessagingSystemService;
+        // Not read-only, a replica could still return events the relay already deleted.
+        this.outboxTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxTransactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (outboxProperties.isEnabled()) {
+            relayExecutor.execute(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+
+    /**
+     * Makes the relay look for events right away instead of at its next poll.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    /**
+     * Wakes the relay up once the current transaction commits, however many events it wrote.
+     */
+    public void wakeUpAfterCommit() {
+        TransactionUtils.runOnceAfterCommit(this, this::wakeUp);
+    }
+
+    /**
+     * Sends the oldest batch of events and deletes the ones the broker acknowledged.
+     * @return the number of relayed events.
+     */
+    public int relayBatch() {
+        List<OutboxEventEntity> events = outboxTransactionTemplate.execute(status -> outboxEventRepository.findOldest(PageRequest.of(0, outboxProperties.getBatchSize())));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<ListenableFuture<SendResult<String, byte[]>>> acknowledgements = new ArrayList<>(events.size());
+        for (OutboxEventEntity event : events) {
+            try {
+                acknowledgements.add(kafkaMessagingSystemService.send(outboxEventMapper.mapOutboxEventEntityToAssetAggregateEventEntity(event)));
+            }
+            catch (RuntimeException e) {
+                // The rest of the batch is sent later, after the events before it.
+                log.warn("OutboxRelay:relayBatch: Sending event id: {} failed, {} events are left for the next batch", event.getId(), events.size() - acknowledgements.size(), e);
+                break;
+            }
+        }
+
+        List<UUID> acknowledgedIds = awaitAcknowledgements(events, acknowledgements);
+        for (int from = 0; from < acknowledgedIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<UUID> chunk = acknowledgedIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, acknowledgedIds.size()));
+            outboxTransactionTemplate.execute(status -> outboxEventRepository.deleteByIds(chunk));
+        }
+        log.debug("OutboxRelay:relayBatch: Relayed {} of {} events", acknowledgedIds.size(), events.size());
+        return acknowledgedIds.size();
+    }
+
+    private List<UUID> awaitAcknowledgements(List<OutboxEventEntity> events, List<ListenableFuture<SendResult<String, byte[]>>> acknowledgements) {
+        List<UUID> acknowledgedIds = new ArrayList<>(acknowledgements.size());
+        long deadline = System.nanoTime() + outboxProperties.getSendTimeout().toNanos();
+        for (int i = 0; i < acknowledgements.size(); i++) {
+            UUID eventId = events.get(i).getId();
+            try {
+                acknowledgements.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                acknowledgedIds.add(eventId);
+            }
+            catch (ExecutionException e) {
+                // Events after it stay in the outbox as well, so the retried event is not delivered after its successors.
+                log.warn("OutboxRelay:awaitAcknowledgements: Event id: {} was not acknowledged, it and the {} events after it are sent again later",
+                        eventId, acknowledgements.size() - i - 1, e.getCause());
+                break;
+            }
+            catch (TimeoutException e) {
+                log.warn("OutboxRelay:awaitAcknowledgements: Gave up waiting for {} acknowledgements, the events are sent again later", acknowledgements.size() - i);
+                break;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return acknowledgedIds;
+    }
+
+    private void run() {
+        log.info("OutboxRelay:run: Relaying events in batches of up to {}", outboxProperties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            }
+            catch (RuntimeException e) {
+                log.error("OutboxRelay:run: Relaying a batch failed, retrying after the poll interval", e);
+                relayed = 0;
+            }
+            // A full batch means there may be more, anything else waits for the next commit or poll.
+            if (relayed < outboxProperties.getBatchSize()) {
+                try {
+                    wakeUps.tryAcquire(outboxProperties.getPollInterval().toNanos(), TimeUnit.NANOSECONDS);
+                    wakeUps.drainPermits();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
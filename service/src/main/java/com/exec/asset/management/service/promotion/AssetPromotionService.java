@@ -0,0 +1,98 @@
+package com.exec.asset.management.service.promotion;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
+import com.exec.asset.management.domain.promotion.PromotionJobStart;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+
+@Service
+@Transactional
+@Slf4j
+public class AssetPromotionService {
+
+    private AssetRepositoryService assetRepositoryService;
+    private AssetMapper assetMapper;
+    private AssetPublisherService assetPublisherService;
+    private PromotionProperties promotionProperties;
+    private ParallelAssetPromotionService parallelAssetPromotionService;
+    private PromotionJobService promotionJobService;
+
+    @Autowired
+    public AssetPromotionService(AssetRepositoryService assetRepositoryService, AssetMapper assetMapper, AssetPublisherService assetPublisherService,
+            PromotionProperties promotionProperties, ParallelAssetPromotionService parallelAssetPromotionService, PromotionJobService promotionJobService) {
+        this.assetRepositoryService = assetRepositoryService;
+        this.assetMapper = assetMapper;
+        this.assetPublisherService = assetPublisherService;
+        this.promotionProperties = promotionProperties;
+        this.parallelAssetPromotionService = parallelAssetPromotionService;
+        this.promotionJobService = promotionJobService;
+    }
+
+    /**
+     * Promotes an asset and every asset nested below it. The subtree is read with one indexed query and
+     * promoted with one guarded bulk update per chunk of 1000 assets, so statements grow with the number of chunks
+     * rather than with the number of assets.
+     * Assets that were already promoted are left untouched and no event is published for them.
+     * <p/>
+     * In parallel mode only the asset itself is promoted in the current transaction, its nested assets are
+     * promoted by {@link ParallelAssetPromotionService} once the transaction commits, before the commit returns.
+     * @param rootId id of the asset to promote.
+     * @return ids of the assets that were promoted in the current transaction.
+     */
+    public List<UUID> promoteAssetAndNestedAssets(UUID rootId) {
+        log.debug("AssetPromotionService:promoteAssetAndNestedAssets: Promoting asset with id {} and its nested assets in {} mode", rootId, promotionProperties.getMode());
+        if (promotionProperties.getMode() == PromotionProperties.Mode.PARALLEL) {
+            List<UUID> promotedIds = promote(rootId, 0);
+            parallelAssetPromotionService.promoteNestedAssetsAfterCommit(rootId);
+            return promotedIds;
+        }
+        return promote(rootId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Promotes an asset in the current transaction and starts a background job promoting its nested assets.
+     * @param rootId id of the asset to promote.
+     * @return ids of the assets that were promoted in the current transaction and the id of the promotion job.
+     */
+    public PromotionJobStart promoteAssetAndStartNestedPromotionJob(UUID rootId) {
+        log.debug("AssetPromotionService:promoteAssetAndStartNestedPromotionJob: Promoting asset with id {} and starting a job for its nested assets", rootId);
+        List<UUID> promotedIds = promote(rootId, 0);
+        return new PromotionJobStart(promotedIds, promotionJobService.createJob(rootId));
+    }
+
+    private List<UUID> promote(UUID rootId, int maxDepth) {
+        List<AssetNode> unpromotedAssets = assetRepositoryService.getUnpromotedSubtree(rootId, maxDepth);
+
+        if (unpromotedAssets.isEmpty()) {
+            log.debug("AssetPromotionService:promote: No unpromoted assets found under asset id {}", rootId);
+            return Collections.emptyList();
+        }
+
+        // A concurrent promotion of an overlapping subtree may have promoted some of the assets since they were read.
+        List<UUID> promotedIds = assetRepositoryService.promoteAssets(unpromotedAssets.stream().map(AssetNode::getId).collect(Collectors.toList()));
+        log.debug("AssetPromotionService:promote: Promoted {} of {} assets under asset id {}", promotedIds.size(), unpromotedAssets.size(), rootId);
+
+        // Publish messages to the asset.events.asset-promoted topic for the assets that changed.
+        Set<UUID> changedIds = new HashSet<>(promotedIds);
+        assetPublisherService.publishAssetsPromotedEvents(rootId, unpromotedAssets.stream()
+                .filter(assetNode -> changedIds.contains(assetNode.getId()))
+                .map(assetMapper::mapPromotedAssetNodeToAssetPromotionEventModel)
+                .collect(Collectors.toList()));
+        return promotedIds;
+    }
+}
@@ -0,0 +1,180 @@
+package com.exec.asset.management.service.promotion;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.config.PromotionConfiguration;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
+import com.exec.asset.management.exception.NestedAssetPromotionFailedException;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.util.TransactionUtils;
+import com.exec.asset.management.util.uuid.UniqueIdentifierOrder;
+
+/**
+ * Promotes the nested assets of an asset breadth-first on a bounded worker pool.
+ * <p/>
+ * Every level of the subtree is split into chunks of ids sorted in the order of the uniqueidentifier keys and each
+ * chunk is promoted by one worker in its own short transaction, which promotes the chunk like the serial promotion
+ * does. Chunks of a level are disjoint and a level only
+ * starts once the previous one committed, so workers never wait on each other's row locks, and overlapping
+ * promotions lock rows in the same order. A failed level stops the promotion before any deeper level is touched,
+ * which leaves no promoted asset below an unpromoted one.
+ */
+@Service
+@Slf4j
+public class ParallelAssetPromotionService {
+
+    private AssetRepositoryService assetRepositoryService;
+    private AssetMapper assetMapper;
+    private AssetPublisherService assetPublisherService;
+    private PromotionProperties promotionProperties;
+    private Executor promotionExecutor;
+    private TransactionTemplate readTransactionTemplate;
+    private TransactionTemplate chunkTransactionTemplate;
+
+    @Autowired
+    public ParallelAssetPromotionService(AssetRepositoryService assetRepositoryService, AssetMapper assetMapper, AssetPublisherService assetPublisherService,
+            PromotionProperties promotionProperties, PlatformTransactionManager transactionManager,
+            @Qualifier(PromotionConfiguration.PROMOTION_EXECUTOR) Executor promotionExecutor) {
+        this.assetRepositoryService = assetRepositoryService;
+        this.assetMapper = assetMapper;
+        this.assetPublisherService = assetPublisherService;
+        this.promotionProperties = promotionProperties;
+        this.promotionExecutor = promotionExecutor;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransactionTemplate.setReadOnly(true);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Promotes the nested assets of the given asset on the worker pool once the current transaction commits, or
+     * right away when there is no transaction. Workers would otherwise block on rows the current transaction still
+     * holds locks on. The thread committing the transaction waits for every level, so the commit only returns once the
+     * whole subtree is promoted.
+     * @param rootId id of the asset whose nested assets are promoted.
+     * @throws NestedAssetPromotionFailedException from the commit when a chunk failed. The given asset stays promoted,
+     * as do the levels promoted before the failed one.
+     */
+    public void promoteNestedAssetsAfterCommit(UUID rootId) {
+        TransactionUtils.runAfterCommit(() -> {
+            try {
+                promoteNestedAssets(rootId);
+            }
+            catch (RuntimeException e) {
+                log.error("ParallelAssetPromotionService:promoteNestedAssetsAfterCommit: Failed to promote the nested assets of asset id {}", rootId, e);
+                throw new NestedAssetPromotionFailedException(rootId, e);
+            }
+        });
+    }
+
+    /**
+     * Promotes every unpromoted asset nested below the given asset, one level at a time.
+     * @param rootId id of the asset whose nested assets are promoted.
+     * @return the number of assets promoted.
+     */
+    public int promoteNestedAssets(UUID rootId) {
+        return promoteNestedAssets(rootId, PromotionProgress.NONE);
+    }
+
+    /**
+     * Promotes every unpromoted asset nested below the given asset, one level at a time.
+     * @param rootId id of the asset whose nested assets are promoted.
+     * @param progress notified about the promotion progress.
+     * @return the number of assets promoted.
+     * @throws java.util.concurrent.CompletionException when a chunk failed, once the chunks of its level completed.
+     */
+    public int promoteNestedAssets(UUID rootId, PromotionProgress progress) {
+        return promoteLevels(rootId, readLevels(rootId, progress), progress).join();
+    }
+
+    private Map<Integer, List<AssetNode>> readLevels(UUID rootId, PromotionProgress progress) {
+        List<AssetNode> unpromotedAssets = readTransactionTemplate.execute(status -> assetRepositoryService.getUnpromotedSubtree(rootId, Integer.MAX_VALUE));
+        Map<Integer, List<AssetNode>> levels = unpromotedAssets.stream()
+                .filter(assetNode -> assetNode.getDepth() > 0)
+                .collect(Collectors.groupingBy(AssetNode::getDepth, TreeMap::new, Collectors.toList()));
+        log.debug("ParallelAssetPromotionService:readLevels: Promoting {} levels below asset id {}", levels.size(), rootId);
+        progress.started(levels.values().stream().mapToLong(List::size).sum());
+        return levels;
+    }
+
+    /**
+     * Chains the levels so that a level is submitted by the thread completing the previous one. No thread waits for
+     * a level, so the promotion can itself run on the worker pool without tying up a worker.
+     */
+    private CompletableFuture<Integer> promoteLevels(UUID rootId, Map<Integer, List<AssetNode>> levels, PromotionProgress progress) {
+        CompletableFuture<Integer> promoted = CompletableFuture.completedFuture(0);
+        for (Map.Entry<Integer, List<AssetNode>> level : levels.entrySet()) {
+            promoted = promoted.thenCompose(promotedAbove -> promoteLevel(rootId, level.getKey(), level.getValue(), progress)
+                    .thenApply(promotedInLevel -> promotedAbove + promotedInLevel));
+        }
+        return promoted;
+    }
+
+    private CompletableFuture<Integer> promoteLevel(UUID rootId, int depth, List<AssetNode> level, PromotionProgress progress) {
+        List<CompletableFuture<Integer>> chunks = chunksInKeyOrder(level).stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> promoteChunk(rootId, chunk, progress), promotionExecutor))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            int promoted = chunks.stream().mapToInt(CompletableFuture::join).sum();
+            log.debug("ParallelAssetPromotionService:promoteLevel: Promoted level {} with {} assets below asset id {}", depth, level.size(), rootId);
+            return promoted;
+        });
+    }
+
+    /**
+     * Sorts in the order of the keys in the database, which is also the order the serial promotion locks rows in.
+     */
+    private List<List<AssetNode>> chunksInKeyOrder(List<AssetNode> level) {
+        List<AssetNode> sorted = new ArrayList<>(level);
+        sorted.sort(Comparator.comparing(AssetNode::getId, UniqueIdentifierOrder.COMPARATOR));
+        List<List<AssetNode>> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += promotionProperties.getChunkSize()) {
+            chunks.add(sorted.subList(from, Math.min(from + promotionProperties.getChunkSize(), sorted.size())));
+        }
+        return chunks;
+    }
+
+    private int promoteChunk(UUID rootId, List<AssetNode> chunk, PromotionProgress progress) {
+        List<UUID> ids = chunk.stream().map(AssetNode::getId).collect(Collectors.toList());
+        try {
+            return chunkTransactionTemplate.execute(status -> {
+                Set<UUID> promotedIds = new HashSet<>(assetRepositoryService.promoteAssets(ids));
+                // Publish messages to the asset.events.asset-promoted topic for the assets of the chunk this transaction promoted.
+                assetPublisherService.publishAssetsPromotedEvents(rootId, chunk.stream()
+                        .filter(assetNode -> promotedIds.contains(assetNode.getId()))
+                        .map(assetMapper::mapPromotedAssetNodeToAssetPromotionEventModel)
+                        .collect(Collectors.toList()));
+                progress.chunkPromoted(ids);
+                return promotedIds.size();
+            });
+        }
+        catch (RuntimeException e) {
+            log.error("ParallelAssetPromotionService:promoteChunk: Failed to promote chunk of {} assets starting with id {}", ids.size(), ids.get(0), e);
+            progress.chunkFailed(ids, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.exec.asset.management.service.promotion;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.api.model.PromotionJobModel;
+import com.exec.asset.management.config.PromotionConfiguration;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.entities.PromotionJobEntity;
+import com.exec.asset.management.exception.PromotionJobDoesNotExistException;
+import com.exec.asset.management.exception.PromotionJobLeaseLostException;
+import com.exec.asset.management.mapper.PromotionJobMapper;
+import com.exec.asset.management.repository.PromotionJobRepository;
+import com.exec.asset.management.util.TransactionUtils;
+
+/**
+ * Promotes the nested assets of a promoted asset in the background and keeps track of the progress.
+ * <p/>
+ * Each chunk of assets is promoted in its own transaction together with the job's counters. Promotion only touches
+ * assets that are not promoted yet, so a job that was interrupted by a restart resumes by simply running again.
+ * <p/>
+ * A job is owned by the instance that runs it, which renews the job's lease while the job waits or runs. Every
+ * instance regularly takes over the unfinished jobs whose lease expired, so the jobs of a stopped instance are
+ * resumed once, by whichever instance claims them first. An instance that lost the lease of a job stops writing the
+ * job's progress and leaves its current chunk rolled back.
+ */
+@Service
+@Slf4j
+public class PromotionJobService {
+
+    private static final EnumSet<PromotionJobEntity.Status> UNFINISHED_STATUSES = EnumSet.of(PromotionJobEntity.Status.PENDING, PromotionJobEntity.Status.RUNNING);
+
+    // A restarted instance is a new owner, it resumes its own jobs like any other once their lease expired.
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<UUID> ownedJobIds = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService leaseExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-promotion-job-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PromotionJobRepository promotionJobRepository;
+    private PromotionJobMapper promotionJobMapper;
+    private ParallelAssetPromotionService parallelAssetPromotionService;
+    private PromotionProperties promotionProperties;
+    private Executor promotionJobExecutor;
+    private TransactionTemplate jobTransactionTemplate;
+
+    @Autowired
+    public PromotionJobService(PromotionJobRepository promotionJobRepository, PromotionJobMapper promotionJobMapper, ParallelAssetPromotionService parallelAssetPromotionService,
+            PromotionProperties promotionProperties, PlatformTransactionManager transactionManager,
+            @Qualifier(PromotionConfiguration.PROMOTION_JOB_EXECUTOR) Executor promotionJobExecutor) {
+        this.promotionJobRepository = promotionJobRepository;
+        this.promotionJobMapper = promotionJobMapper;
+        this.parallelAssetPromotionService = parallelAssetPromotionService;
+        this.promotionProperties = promotionProperties;
+        this.promotionJobExecutor = promotionJobExecutor;
+        this.jobTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates a job promoting the nested assets of the given asset, leased to this instance. The job starts once the
+     * current transaction commits, so it sees the asset hierarchy as written by the current request.
+     * @param rootAssetId id of the promoted asset.
+     * @return id of the job.
+     */
+    @Transactional
+    public UUID createJob(UUID rootAssetId) {
+        PromotionJobEntity promotionJob = promotionJobRepository.save(PromotionJobEntity.builder()
+                .rootAssetId(rootAssetId)
+                .status(PromotionJobEntity.Status.PENDING)
+                .processedCount(0L)
+                .failedCount(0L)
+                .owner(owner)
+                .leaseExpiresAt(leaseExpiry())
+                .build());
+        log.debug("PromotionJobService:createJob: Created promotion job id: {} for asset id: {}", promotionJob.getId(), rootAssetId);
+        UUID jobId = promotionJob.getId();
+        TransactionUtils.runAfterCommit(() -> submit(jobId, rootAssetId));
+        return jobId;
+    }
+
+    @Transactional(readOnly = true)
+    public PromotionJobModel getJobById(UUID jobId) {
+        return promotionJobMapper.mapPromotionJobEntityToPromotionJobModel(promotionJobRepository.findById(jobId).orElseThrow(() -> new PromotionJobDoesNotExistException(jobId)));
+    }
+
+    /**
+     * Resumes the unfinished jobs no instance holds a lease on, then keeps renewing the leases of this instance's jobs
+     * and looking for expired ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        resumeUnfinishedJobs();
+        long renewalMillis = Math.max(promotionProperties.getJobLeaseDuration().toMillis() / 3, 1);
+        leaseExecutor.scheduleWithFixedDelay(this::maintainLeases, renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseExecutor.shutdownNow();
+    }
+
+    /**
+     * Claims and resumes the unfinished jobs whose lease expired, jobs another instance still holds a lease on are
+     * left alone.
+     */
+    public void resumeUnfinishedJobs() {
+        List<PromotionJobEntity> unleasedJobs = promotionJobRepository.findUnleased(UNFINISHED_STATUSES, Instant.now());
+        int resumed = 0;
+        for (PromotionJobEntity promotionJob : unleasedJobs) {
+            // Other instances may be claiming the same jobs, only one of them gets each job.
+            if (jobTransactionTemplate.execute(transactionStatus -> promotionJobRepository.claim(promotionJob.getId(), UNFINISHED_STATUSES, owner, Instant.now(), leaseExpiry())) > 0) {
+                submit(promotionJob.getId(), promotionJob.getRootAssetId());
+                resumed++;
+            }
+        }
+        if (!unleasedJobs.isEmpty()) {
+            log.info("PromotionJobService:resumeUnfinishedJobs: Resuming {} of {} promotion jobs without a lease", resumed, unleasedJobs.size());
+        }
+    }
+
+    private void maintainLeases() {
+        try {
+            for (UUID jobId : ownedJobIds) {
+                if (jobTransactionTemplate.execute(transactionStatus -> promotionJobRepository.renewLease(jobId, UNFINISHED_STATUSES, owner, leaseExpiry())) == 0) {
+                    log.warn("PromotionJobService:maintainLeases: Lost the lease of promotion job id: {}", jobId);
+                    ownedJobIds.remove(jobId);
+                }
+            }
+            resumeUnfinishedJobs();
+        }
+        catch (RuntimeException e) {
+            // Retried with the next renewal, the leases outlast a few failed ones.
+            log.error("PromotionJobService:maintainLeases: Maintaining promotion job leases failed", e);
+        }
+    }
+
+    private Instant leaseExpiry() {
+        return Instant.now().plus(promotionProperties.getJobLeaseDuration());
+    }
+
+    private void submit(UUID jobId, UUID rootAssetId) {
+        // The lease is renewed while the job waits for a free slot as well.
+        ownedJobIds.add(jobId);
+        promotionJobExecutor.execute(() -> runJob(jobId, rootAssetId));
+    }
+
+    void runJob(UUID jobId, UUID rootAssetId) {
+        log.debug("PromotionJobService:runJob: Running promotion job id: {} for asset id: {}", jobId, rootAssetId);
+        try {
+            PromotionJobEntity.Status status = PromotionJobEntity.Status.COMPLETED;
+            try {
+                parallelAssetPromotionService.promoteNestedAssets(rootAssetId, new JobProgress(jobId));
+            }
+            catch (RuntimeException e) {
+                log.error("PromotionJobService:runJob: Promotion job id: {} failed", jobId, e);
+                status = PromotionJobEntity.Status.FAILED;
+            }
+            PromotionJobEntity.Status finalStatus = status;
+            if (jobTransactionTemplate.execute(transactionStatus -> promotionJobRepository.updateStatus(jobId, owner, finalStatus)) == 0) {
+                log.warn("PromotionJobService:runJob: Promotion job id: {} was taken over by another instance, leaving its status", jobId);
+                return;
+            }
+            log.debug("PromotionJobService:runJob: Promotion job id: {} finished with status: {}", jobId, finalStatus);
+        }
+        finally {
+            ownedJobIds.remove(jobId);
+        }
+    }
+
+    private class JobProgress implements PromotionProgress {
+        private final UUID jobId;
+
+        JobProgress(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void started(long remaining) {
+            if (jobTransactionTemplate.execute(transactionStatus -> promotionJobRepository.start(jobId, owner, PromotionJobEntity.Status.RUNNING, remaining)) == 0) {
+                throw new PromotionJobLeaseLostException(jobId);
+            }
+        }
+
+        @Override
+        public void chunkPromoted(List<UUID> ids) {
+            // Joins the chunk transaction, so the checkpoint always matches the promoted assets. The chunk rolls back
+            // when another instance took the job over.
+            if (promotionJobRepository.addProcessed(jobId, owner, ids.size()) == 0) {
+                throw new PromotionJobLeaseLostException(jobId);
+            }
+        }
+
+        @Override
+        public void chunkFailed(List<UUID> ids, RuntimeException cause) {
+            jobTransactionTemplate.execute(transactionStatus -> promotionJobRepository.addFailed(jobId, owner, ids.size()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.exec.asset.management.service.promotion;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Callbacks reporting the progress of a nested asset promotion.
+ */
+public interface PromotionProgress {
+
+    PromotionProgress NONE = new PromotionProgress() {
+    };
+
+    /**
+     * @param remaining the number of nested assets that are going to be promoted.
+     */
+    default void started(long remaining) {
+    }
+
+    /**
+     * Called within the transaction promoting the chunk, so anything written here commits or rolls back with it.
+     * @param ids of the promoted assets.
+     */
+    default void chunkPromoted(List<UUID> ids) {
+    }
+
+    /**
+     * Called after the transaction promoting the chunk rolled back.
+     * @param ids of the assets that were not promoted.
+     * @param cause of the failure.
+     */
+    default void chunkFailed(List<UUID> ids, RuntimeException cause) {
+    }
+}
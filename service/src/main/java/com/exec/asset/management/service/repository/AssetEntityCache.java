@@ -0,0 +1,170 @@
+package com.exec.asset.management.service.repository;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.exec.asset.management.config.AssetCacheProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of assets read by id, per tenant. The cache holds detached copies of the assets and hands out a new
+ * copy on every hit, so callers may modify and save what they get. An asset is dropped when it is saved, promoted or
+ * deleted, and so are the children of a deleted asset. Hits, misses and evictions are published as the
+ * {@value #CACHE_NAME} cache metrics.
+ * <p/>
+ * Only read-only transactions read through the cache, see {@link AssetRepositoryService#findAssetById}. Writes such as
+ * updating an asset list read every asset from the database and do not benefit from it.
+ * <p/>
+ * A loaded asset is cached after its transaction committed, which may be after a writer invalidated it. Every
+ * invalidation is therefore numbered, and a loaded asset is only cached when no invalidation of it or of its tenant's
+ * assets was numbered after its load started.
+ */
+@Component
+@Slf4j
+public class AssetEntityCache {
+
+    public static final String CACHE_NAME = "assets";
+
+    private final MultiTenantIdentifierResolver multiTenantIdentifierResolver;
+    private final Cache<AssetKey, AssetEntity> assets;
+    private final AtomicLong invalidationCount = new AtomicLong();
+    // Number of the last invalidation per asset, a null asset id stands for all assets of the tenant. Kept as long as
+    // the assets, a load outliving that is read again once its asset expired anyway.
+    private final Cache<AssetKey, Long> lastInvalidations;
+
+    @Autowired
+    public AssetEntityCache(AssetCacheProperties assetCacheProperties, MultiTenantIdentifierResolver multiTenantIdentifierResolver, MeterRegistry meterRegistry) {
+        this.multiTenantIdentifierResolver = multiTenantIdentifierResolver;
+        this.assets = Caffeine.newBuilder()
+                .maximumSize(assetCacheProperties.getMaximumSize())
+                .expireAfterWrite(assetCacheProperties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.lastInvalidations = Caffeine.newBuilder()
+                .maximumSize(assetCacheProperties.getMaximumSize())
+                .expireAfterWrite(assetCacheProperties.getExpireAfterWrite())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, assets, CACHE_NAME);
+    }
+
+    /**
+     * The loaded asset is only cached once the current transaction commits, so state a rolled back transaction read
+     * or wrote itself is never cached.
+     * @param id of the asset.
+     * @param loader reads the asset when it is not cached, a missing asset is not cached.
+     * @return a copy of the cached asset, or the loaded asset.
+     */
+    public Optional<AssetEntity> getAsset(UUID id, Function<UUID, Optional<AssetEntity>> loader) {
+        AssetKey key = new AssetKey(multiTenantIdentifierResolver.resolveCurrentTenantIdentifier(), id);
+        AssetEntity cached = assets.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        long loadStartedAfter = invalidationCount.get();
+        Optional<AssetEntity> loaded = loader.apply(id);
+        loaded.ifPresent(assetEntity -> {
+            AssetEntity snapshot = copy(assetEntity);
+            TransactionUtils.runAfterCommit(() -> putIfNotInvalidatedSince(key, snapshot, loadStartedAfter));
+        });
+        return loaded;
+    }
+
+    /**
+     * @param id of the asset that was saved or promoted.
+     */
+    public void invalidate(UUID id) {
+        invalidateAll(Set.of(id));
+    }
+
+    /**
+     * Drops the given assets right away and again once the current transaction commits, so an asset read by a
+     * concurrent request in between is not kept either.
+     * @param ids of the assets that were saved or promoted.
+     */
+    public void invalidateAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<AssetKey> keys = toKeys(ids);
+        invalidateKeys(keys);
+        TransactionUtils.runAfterCommit(() -> invalidateKeys(keys));
+    }
+
+    /**
+     * Like {@link #invalidateAll(Collection)}, also drops the children of the deleted assets as they were given another
+     * parent. Goes through all cached assets of the tenant.
+     * @param ids of the assets that were deleted.
+     */
+    public void invalidateDeleted(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Set<UUID> deletedIds = ids instanceof Set ? (Set<UUID>) ids : new HashSet<>(ids);
+        removeDeleted(tenantId, deletedIds);
+        TransactionUtils.runAfterCommit(() -> removeDeleted(tenantId, deletedIds));
+    }
+
+    private void removeDeleted(String tenantId, Set<UUID> deletedIds) {
+        // The children of the deleted assets are not known, so loads of any asset of the tenant are not cached.
+        lastInvalidations.put(new AssetKey(tenantId, null), invalidationCount.incrementAndGet());
+        assets.asMap().entrySet().removeIf(entry -> tenantId.equals(entry.getKey().getTenantId())
+                && (deletedIds.contains(entry.getKey().getAssetId()) || deletedIds.contains(entry.getValue().getParentId())));
+        log.debug("AssetEntityCache:removeDeleted: {} assets left after invalidating {} deleted assets", assets.estimatedSize(), deletedIds.size());
+    }
+
+    /**
+     * Numbers the invalidation before dropping the assets. A put that checked the number too early is then still
+     * followed by the drop.
+     */
+    private void invalidateKeys(Set<AssetKey> keys) {
+        long invalidation = invalidationCount.incrementAndGet();
+        keys.forEach(key -> lastInvalidations.put(key, invalidation));
+        assets.invalidateAll(keys);
+    }
+
+    private void putIfNotInvalidatedSince(AssetKey key, AssetEntity snapshot, long loadStartedAfter) {
+        assets.asMap().compute(key, (ignored, cached) -> invalidatedSince(key, loadStartedAfter) ? cached : snapshot);
+    }
+
+    private boolean invalidatedSince(AssetKey key, long loadStartedAfter) {
+        Long assetInvalidation = lastInvalidations.getIfPresent(key);
+        Long tenantInvalidation = lastInvalidations.getIfPresent(new AssetKey(key.getTenantId(), null));
+        return assetInvalidation != null && assetInvalidation > loadStartedAfter || tenantInvalidation != null && tenantInvalidation > loadStartedAfter;
+    }
+
+    private Set<AssetKey> toKeys(Collection<UUID> ids) {
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Set<AssetKey> keys = new HashSet<>();
+        ids.forEach(id -> keys.add(new AssetKey(tenantId, id)));
+        return keys;
+    }
+
+    private static AssetEntity copy(AssetEntity assetEntity) {
+        return new AssetEntity(assetEntity.getId(), assetEntity.getPromoted(), assetEntity.getParentId(), assetEntity.getVersion());
+    }
+
+    @Value
+    private static class AssetKey {
+        String tenantId;
+        UUID assetId;
+    }
+}
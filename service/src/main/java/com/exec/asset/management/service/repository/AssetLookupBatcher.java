@@ -0,0 +1,138 @@
+package com.exec.asset.management.service.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.exec.asset.management.config.LookupBatchingProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+/**
+ * Combines concurrent reads of single assets of a tenant into one query. The first read of a batch waits for the
+ * batching window, or until the batch is full, and then reads the assets of every waiting caller with a single
+ * {@code IN} query on its own thread, so the query runs in its transaction and for its tenant. Each caller gets an
+ * asset of its own that is not attached to any persistence context.
+ */
+@Component
+@Slf4j
+public class AssetLookupBatcher {
+
+    private final LookupBatchingProperties lookupBatchingProperties;
+    private final AssetRepository assetRepository;
+    private final MultiTenantIdentifierResolver multiTenantIdentifierResolver;
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    @Autowired
+    public AssetLookupBatcher(LookupBatchingProperties lookupBatchingProperties, AssetRepository assetRepository,
+            MultiTenantIdentifierResolver multiTenantIdentifierResolver) {
+        this.lookupBatchingProperties = lookupBatchingProperties;
+        this.assetRepository = assetRepository;
+        this.multiTenantIdentifierResolver = multiTenantIdentifierResolver;
+    }
+
+    public boolean isEnabled() {
+        return lookupBatchingProperties.isEnabled();
+    }
+
+    /**
+     * @param id of the asset.
+     * @return the asset, empty when it does not exist.
+     */
+    public Optional<AssetEntity> findAssetById(UUID id) {
+        String tenantId = multiTenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Lookup lookup = new Lookup(id);
+        Batch batch;
+        boolean leader;
+        boolean full;
+        synchronized (openBatches) {
+            batch = openBatches.get(tenantId);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch();
+                openBatches.put(tenantId, batch);
+            }
+            batch.lookups.add(lookup);
+            full = batch.lookups.size() >= lookupBatchingProperties.getMaxBatchSize();
+            if (full) {
+                openBatches.remove(tenantId);
+            }
+        }
+
+        if (full) {
+            batch.full.countDown();
+        }
+        if (leader) {
+            awaitWindow(batch);
+            synchronized (openBatches) {
+                openBatches.remove(tenantId, batch);
+            }
+            run(batch);
+        }
+        try {
+            return lookup.result.join();
+        }
+        catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(lookupBatchingProperties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs once the batch is closed, no lookups are added to it any more.
+     */
+    private void run(Batch batch) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        batch.lookups.forEach(lookup -> ids.add(lookup.id));
+        log.debug("AssetLookupBatcher:run: Reading {} assets for {} lookups", ids.size(), batch.lookups.size());
+        Map<UUID, AssetEntity> assetsById;
+        try {
+            assetsById = assetRepository.findDetachedByIds(ids).stream().collect(Collectors.toMap(AssetEntity::getId, Function.identity()));
+        }
+        catch (RuntimeException e) {
+            batch.lookups.forEach(lookup -> lookup.result.completeExceptionally(e));
+            return;
+        }
+        batch.lookups.forEach(lookup -> lookup.result.complete(Optional.ofNullable(assetsById.get(lookup.id))
+                .map(assetEntity -> new AssetEntity(assetEntity.getId(), assetEntity.getPromoted(), assetEntity.getParentId(), assetEntity.getVersion()))));
+    }
+
+    private static final class Batch {
+        private final List<Lookup> lookups = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private static final class Lookup {
+        private final UUID id;
+        private final CompletableFuture<Optional<AssetEntity>> result = new CompletableFuture<>();
+
+        private Lookup(UUID id) {
+            this.id = id;
+        }
+    }
+}
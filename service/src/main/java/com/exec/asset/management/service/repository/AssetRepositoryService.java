@@ -2,55 +2,153 @@ package com.exec.asset.management.service.repository;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.exec.asset.management.domain.entities.AssetClosureEntity;
 import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.etag.AssetVersion;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
 import com.exec.asset.management.exception.AssetDoesNotExistException;
+import com.exec.asset.management.exception.AssetHierarchyCycleException;
+import com.exec.asset.management.exception.ParentAssetDoesNotExistException;
+import com.exec.asset.management.repository.AssetClosureRepository;
 import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.hierarchy.AssetHierarchyIndex;
+import com.exec.asset.management.service.hierarchy.AssetHierarchyIndexService;
+import com.exec.asset.management.service.hierarchy.AssetLineageCache;
 
 @Service
 @Slf4j
 public class AssetRepositoryService {
+    // Keeps IN lists well below the SQL Server limit of 2100 parameters per statement.
+    protected static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    // The set-based delete statements repeat the list of ids up to five times.
+    protected static final int DELETE_CHUNK_SIZE = 400;
+    // Pages are read in key order, so the next page can seek to the last id of the previous one.
+    public static final Sort ID_ORDER = Sort.by("id");
+
     private AssetRepository assetRepository;
+    private AssetClosureRepository assetClosureRepository;
+    private AssetHierarchyIndexService assetHierarchyIndexService;
+    private AssetLineageCache assetLineageCache;
+    private AssetEntityCache assetEntityCache;
+    private AssetLookupBatcher assetLookupBatcher;
 
     @Autowired
-    public AssetRepositoryService (AssetRepository assetRepository) {
+    public AssetRepositoryService (AssetRepository assetRepository, AssetClosureRepository assetClosureRepository,
+            AssetHierarchyIndexService assetHierarchyIndexService, AssetLineageCache assetLineageCache, AssetEntityCache assetEntityCache,
+            AssetLookupBatcher assetLookupBatcher) {
         this.assetRepository = assetRepository;
+        this.assetClosureRepository = assetClosureRepository;
+        this.assetHierarchyIndexService = assetHierarchyIndexService;
+        this.assetLineageCache = assetLineageCache;
+        this.assetEntityCache = assetEntityCache;
+        this.assetLookupBatcher = assetLookupBatcher;
     }
 
+    /**
+     * @throws OptimisticLockingFailureException when the asset was changed since it was read.
+     */
     public AssetEntity saveAsset(AssetEntity assetEntity) {
         log.debug("AssetRepositoryService:saveAsset: Saving asset id: {}", assetEntity.getId());
-        return assetRepository.save(assetEntity);
+        AssetEntity savedEntity;
+        try {
+            savedEntity = assetRepository.save(assetEntity);
+        }
+        catch (OptimisticLockingFailureException e) {
+            // A cached copy of the asset is outdated as well, the next read has to go to the database.
+            assetEntityCache.invalidate(assetEntity.getId());
+            throw e;
+        }
+        updateHierarchy(savedEntity);
+        assetHierarchyIndexService.assetSaved(savedEntity);
+        assetEntityCache.invalidate(savedEntity.getId());
+        return savedEntity;
     }
 
+    /**
+     * Within read-only transactions reads through the asset cache. A cached asset is a detached copy and may be up to
+     * the cache's expiry behind writes made by other instances, concurrent misses are read together when lookup
+     * batching is enabled. Any other caller reads from the database, so writes are checked against the current state
+     * of the asset and of its parent.
+     */
     public Optional<AssetEntity> findAssetById(UUID id) {
         log.debug("AssetRepositoryService:findAssetById: Finding asset with id: {}", id);
-        return assetRepository.findById(id);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return assetRepository.findById(id);
+        }
+        if (assetLookupBatcher.isEnabled()) {
+            return assetEntityCache.getAsset(id, assetLookupBatcher::findAssetById);
+        }
+        return assetEntityCache.getAsset(id, assetRepository::findById);
     }
 
     /**
-     * Deletes a given asset and assigns any child assets to the deleted assets parent id.
+     * Deletes a given asset and assigns any child assets to the deleted assets parent id. The children are re-linked
+     * with a single update however many there are. The persistence context is cleared afterwards.
      * @param id of the asset to delete.
      */
     public void deleteAsset(UUID id) {
         log.debug("AssetRepositoryService:deleteAsset: Delete asset with id: {}", id);
-        AssetEntity assetEntity = findAssetById(id).orElseThrow(() -> new AssetDoesNotExistException(id));
+        // Not read through the cache, the children are linked to the parent the database holds.
+        AssetEntity assetEntity = assetRepository.findById(id).orElseThrow(() -> new AssetDoesNotExistException(id));
         UUID parentId = assetEntity.getParentId();
 
-        getAssetsByParentId(id).forEach(childAssetEntity -> {
-            log.debug("AssetRepositoryService:deleteAsset: Updating child assets to be linked to deleted asset's parent id: {}", parentId);
-            childAssetEntity.setParentId(parentId);
-            assetRepository.save(childAssetEntity);
-        });
+        int reparented = assetRepository.reparentChildren(id, parentId);
+        log.debug("AssetRepositoryService:deleteAsset: Linked {} child assets to deleted asset's parent id: {}", reparented, parentId);
+        assetRepository.removeHierarchyNode(id);
+        assetRepository.deleteByIds(List.of(id));
+        assetHierarchyIndexService.assetDeleted(id);
+        assetLineageCache.invalidate(id);
+        assetEntityCache.invalidateDeleted(Set.of(id));
+    }
 
-        assetRepository.deleteById(id);
+    /**
+     * Deletes the given assets and links each remaining child to its nearest ancestor that is not deleted. Works on
+     * chunks of ids with a fixed number of statements per chunk, whatever the number of children. Ids of assets that
+     * do not exist are ignored. The persistence context is cleared afterwards.
+     * @param ids of the assets to delete.
+     * @return the number of deleted assets.
+     */
+    public int deleteAssets(Collection<UUID> ids) {
+        log.debug("AssetRepositoryService:deleteAssets: Delete {} assets", ids.size());
+        List<UUID> idList = List.copyOf(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        // Each chunk leaves a consistent hierarchy behind, so the chunks can be removed one after the other.
+        for (int from = 0; from < idList.size(); from += DELETE_CHUNK_SIZE) {
+            List<UUID> chunk = idList.subList(from, Math.min(from + DELETE_CHUNK_SIZE, idList.size()));
+            assetRepository.reparentChildrenOfHierarchyNodes(chunk);
+            assetRepository.removeHierarchyNodes(chunk);
+            deleted += assetRepository.deleteByIds(chunk);
+        }
+        idList.forEach(assetHierarchyIndexService::assetDeleted);
+        assetLineageCache.invalidateAll(idList);
+        assetEntityCache.invalidateDeleted(idList);
+        return deleted;
     }
 
     public Page<AssetEntity> getAllAssets(PageRequest pageRequest) {
@@ -58,12 +156,337 @@ public class AssetRepositoryService {
         return assetRepository.findAll(pageRequest);
     }
 
+    public long countAssets() {
+        log.debug("AssetRepositoryService:countAssets: Counting all assets");
+        return assetRepository.count();
+    }
+
+    /**
+     * Like {@link #getAllAssets(PageRequest)} without counting all assets.
+     */
+    public Slice<AssetEntity> getAssetSlice(PageRequest pageRequest) {
+        log.debug("AssetRepositoryService:getAssetSlice: get: {} assets per page", pageRequest.getPageSize());
+        return assetRepository.findAllBy(pageRequest);
+    }
+
+    /**
+     * Reads the page of assets following the given id in id order. Takes the same time whatever the position of the id.
+     * @param lastId id of the last asset of the previous page.
+     * @param pageSize the maximum number of assets to return.
+     */
+    public Slice<AssetEntity> getAssetsAfter(UUID lastId, int pageSize) {
+        log.debug("AssetRepositoryService:getAssetsAfter: get: {} assets after asset id: {}", pageSize, lastId);
+        return assetRepository.findByIdGreaterThan(lastId, PageRequest.of(0, pageSize, ID_ORDER));
+    }
+
+    /**
+     * Reads the version straight from the database, bypassing the asset cache.
+     * @return the version of the asset, empty when it does not exist.
+     */
+    public Optional<Long> findAssetVersion(UUID id) {
+        log.debug("AssetRepositoryService:findAssetVersion: Finding version of asset with id: {}", id);
+        return assetRepository.findVersionById(id);
+    }
+
+    /**
+     * Like {@link #getAssetSlice(PageRequest)}, reading only ids and versions.
+     */
+    public Slice<AssetVersion> getAssetVersionSlice(PageRequest pageRequest) {
+        log.debug("AssetRepositoryService:getAssetVersionSlice: get: {} asset versions per page", pageRequest.getPageSize());
+        return assetRepository.findVersionsBy(pageRequest);
+    }
+
+    /**
+     * Like {@link #getAssetsAfter(UUID, int)}, reading only ids and versions.
+     */
+    public Slice<AssetVersion> getAssetVersionsAfter(UUID lastId, int pageSize) {
+        log.debug("AssetRepositoryService:getAssetVersionsAfter: get: {} asset versions after asset id: {}", pageSize, lastId);
+        return assetRepository.findVersionsByIdGreaterThan(lastId, PageRequest.of(0, pageSize, ID_ORDER));
+    }
+
     public List<AssetEntity> getAssetsByParentId(UUID parentId) {
         log.debug("AssetRepositoryService:getAssetsByParentId: get child assets for parentId: {}", parentId);
         return assetRepository.findByParentId(parentId);
     }
 
+    /**
+     * Saves the given assets with JDBC batching. Assets without an id are new, their hierarchy links are inserted per
+     * parent in batches as well. The hierarchy links of existing assets are read with one query per chunk of ids and
+     * existing assets that all move below the same parent are moved together, see {@link #updateHierarchies}.
+     * A new parent has to come before its children in the list.
+     * @param assetEntities to save.
+     * @return the saved assets in the given order.
+     */
     public List<AssetEntity> saveAll(List<AssetEntity> assetEntities) {
-        return assetRepository.saveAll(assetEntities);
+        log.debug("AssetRepositoryService:saveAll: Saving {} assets", assetEntities.size());
+        Set<AssetEntity> newEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        assetEntities.stream().filter(assetEntity -> assetEntity.getId() == null).forEach(newEntities::add);
+
+        List<AssetEntity> savedEntities = assetRepository.saveAll(assetEntities);
+        Map<UUID, List<UUID>> newIdsByParentId = new LinkedHashMap<>();
+        List<AssetEntity> existingEntities = new ArrayList<>();
+        savedEntities.forEach(savedEntity -> {
+            if (newEntities.contains(savedEntity)) {
+                newIdsByParentId.computeIfAbsent(savedEntity.getParentId(), parentId -> new ArrayList<>()).add(savedEntity.getId());
+            }
+            else {
+                existingEntities.add(savedEntity);
+            }
+        });
+        updateHierarchies(existingEntities);
+        newIdsByParentId.forEach(assetRepository::insertHierarchyNodes);
+        savedEntities.forEach(assetHierarchyIndexService::assetSaved);
+        assetEntityCache.invalidateAll(savedEntities.stream().map(AssetEntity::getId).collect(Collectors.toList()));
+        return savedEntities;
+    }
+
+    /**
+     * Inserts new assets and their hierarchy links in JDBC batches without going through the persistence context.
+     * A parent has to exist already or come before its children in the list.
+     * @param assetEntities to insert, every asset must have an id.
+     * @throws ParentAssetDoesNotExistException when a parent neither exists nor comes earlier in the list.
+     */
+    public void importAssets(List<AssetEntity> assetEntities) {
+        log.debug("AssetRepositoryService:importAssets: Importing {} assets", assetEntities.size());
+        Set<UUID> importedIds = new HashSet<>();
+        Set<UUID> existingParentIds = new HashSet<>();
+        assetEntities.forEach(assetEntity -> {
+            if (assetEntity.getParentId() != null && !importedIds.contains(assetEntity.getParentId())) {
+                existingParentIds.add(assetEntity.getParentId());
+            }
+            importedIds.add(assetEntity.getId());
+        });
+
+        // Links from every ancestor to each asset, for the existing parents and the assets imported so far.
+        Map<UUID, List<AssetClosureEntity>> linksByDescendantId = findLinksToAssets(existingParentIds);
+        List<AssetClosureEntity> links = new ArrayList<>();
+        for (AssetEntity assetEntity : assetEntities) {
+            List<AssetClosureEntity> assetLinks = new ArrayList<>();
+            assetLinks.add(new AssetClosureEntity(assetEntity.getId(), assetEntity.getId(), 0));
+            if (assetEntity.getParentId() != null) {
+                List<AssetClosureEntity> parentLinks = linksByDescendantId.get(assetEntity.getParentId());
+                if (parentLinks == null) {
+                    throw new ParentAssetDoesNotExistException(assetEntity.getParentId());
+                }
+                parentLinks.forEach(parentLink -> assetLinks.add(new AssetClosureEntity(parentLink.getAncestorId(), assetEntity.getId(), parentLink.getDepth() + 1)));
+            }
+            linksByDescendantId.put(assetEntity.getId(), assetLinks);
+            links.addAll(assetLinks);
+        }
+
+        assetRepository.insertAssets(assetEntities);
+        assetRepository.insertHierarchyLinks(links);
+        assetEntities.forEach(assetHierarchyIndexService::assetSaved);
+    }
+
+    /**
+     * @param ids of the assets to find, looked up in chunks.
+     * @return the assets that exist, in no particular order.
+     */
+    public List<AssetEntity> findAllAssetsById(Collection<UUID> ids) {
+        log.debug("AssetRepositoryService:findAllAssetsById: Finding {} assets", ids.size());
+        List<UUID> idList = List.copyOf(ids);
+        List<AssetEntity> assetEntities = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            assetEntities.addAll(assetRepository.findAllById(idList.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, idList.size()))));
+        }
+        return assetEntities;
+    }
+
+    /**
+     * @param id of the subtree root.
+     * @param maxDepth the number of levels below the root to include, 0 only returns the root itself.
+     * @return ids of the root and its descendants ordered by distance from the root.
+     */
+    public List<UUID> getDescendantIds(UUID id, int maxDepth) {
+        log.debug("AssetRepositoryService:getDescendantIds: get descendants of asset id: {} up to depth: {}", id, maxDepth);
+        return indexContaining(id)
+                .map(index -> index.getDescendantIds(id, maxDepth))
+                .orElseGet(() -> assetClosureRepository.findDescendantIds(id, maxDepth));
+    }
+
+    /**
+     * @param id of the subtree root.
+     * @param maxDepth the number of levels below the root to include.
+     * @return the assets nested below the root ordered by distance from the root, has to be consumed inside a
+     * transaction and closed.
+     */
+    public Stream<AssetEntity> streamDescendants(UUID id, int maxDepth) {
+        log.debug("AssetRepositoryService:streamDescendants: stream descendants of asset id: {} up to depth: {}", id, maxDepth);
+        return assetRepository.streamDescendants(id, maxDepth);
+    }
+
+    /**
+     * @return every asset, has to be consumed inside a transaction and closed.
+     */
+    public Stream<AssetEntity> streamAllAssets() {
+        log.debug("AssetRepositoryService:streamAllAssets: stream all assets");
+        return assetRepository.streamAll();
+    }
+
+    /**
+     * @param id of the asset.
+     * @return ids of the asset's ancestors ordered from its parent up to the root of its tree.
+     */
+    public List<UUID> getAncestorIds(UUID id) {
+        log.debug("AssetRepositoryService:getAncestorIds: get ancestors of asset id: {}", id);
+        return indexContaining(id)
+                .map(index -> index.getAncestorIds(id))
+                .orElseGet(() -> assetClosureRepository.findAncestorIds(id));
+    }
+
+    /**
+     * Makes sure that linking an asset to a parent keeps the hierarchy free of cycles, which is the case unless the
+     * parent is the asset itself or nested below it. Costs a single indexed lookup whatever the depth of the tree.
+     * @param id of the asset.
+     * @param parentId of the new parent, may be null.
+     * @throws AssetHierarchyCycleException when the link would create a cycle.
+     */
+    public void verifyParentIsNotNested(UUID id, UUID parentId) {
+        if (parentId != null && (parentId.equals(id) || assetClosureRepository.existsByAncestorIdAndDescendantId(id, parentId))) {
+            throw new AssetHierarchyCycleException(id, parentId);
+        }
+    }
+
+    /**
+     * Reads the lineage of an asset with a single query on the closure table, frequently requested lineages are
+     * served from the lineage cache.
+     * @param id of the asset.
+     * @return the asset's ancestors ordered from its parent up to the root of its tree, must not be modified.
+     * @throws AssetDoesNotExistException when there is no asset with the given id.
+     */
+    public List<AssetEntity> getAncestors(UUID id) {
+        log.debug("AssetRepositoryService:getAncestors: get ancestors of asset id: {}", id);
+        return assetLineageCache.getAncestors(id, assetId -> {
+            List<AssetEntity> ancestors = assetRepository.findAncestors(assetId);
+            if (ancestors.isEmpty() && !assetRepository.existsById(assetId)) {
+                throw new AssetDoesNotExistException(assetId);
+            }
+            return ancestors;
+        });
+    }
+
+    /**
+     * @param rootId id of the subtree root.
+     * @param maxDepth the number of levels below the root to include, 0 only considers the root itself.
+     * @return the unpromoted nodes of the subtree with their depth below the root.
+     */
+    public List<AssetNode> getUnpromotedSubtree(UUID rootId, int maxDepth) {
+        log.debug("AssetRepositoryService:getUnpromotedSubtree: get unpromoted assets in the subtree of: {} up to depth: {}", rootId, maxDepth);
+        // Never read from the hierarchy index, which misses the writes of other instances. A promotion skipping an
+        // asset another instance added or left unpromoted would not get back to it.
+        return assetRepository.findUnpromotedSubtree(rootId, maxDepth);
+    }
+
+    /**
+     * Flips the promoted flag of the given assets with batched guarded updates. Assets promoted by a concurrent
+     * transaction in the meantime are left untouched and are not part of the result. The persistence context is
+     * cleared afterwards so previously loaded entities have to be re-read or merged.
+     * @param ids of the assets to promote.
+     * @return ids of the assets that this transaction promoted.
+     */
+    public List<UUID> promoteAssets(List<UUID> ids) {
+        log.debug("AssetRepositoryService:promoteAssets: Promoting {} assets", ids.size());
+        List<UUID> promoted = assetRepository.promoteByIds(ids);
+        assetHierarchyIndexService.assetsPromoted(ids);
+        assetLineageCache.invalidateAll(ids);
+        assetEntityCache.invalidateAll(ids);
+        return promoted;
+    }
+
+    private Map<UUID, List<AssetClosureEntity>> findLinksToAssets(Set<UUID> ids) {
+        Map<UUID, List<AssetClosureEntity>> linksByDescendantId = new HashMap<>();
+        List<UUID> idList = List.copyOf(ids);
+        for (int from = 0; from < idList.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            assetClosureRepository.findByDescendantIdIn(idList.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, idList.size())))
+                    .forEach(link -> linksByDescendantId.computeIfAbsent(link.getDescendantId(), id -> new ArrayList<>()).add(link));
+        }
+        return linksByDescendantId;
+    }
+
+    /**
+     * @return the hierarchy index when it is ready and knows the given asset. Assets written by another instance are
+     * missing from the index, lookups for them go to the database instead.
+     */
+    private Optional<AssetHierarchyIndex> indexContaining(UUID id) {
+        return assetHierarchyIndexService.getIndex().filter(index -> index.contains(id));
+    }
+
+    /**
+     * Keeps the closure table in line with the parent ids of several saved assets. The links to the assets are read
+     * with one query per chunk of ids. When every moved asset goes below the same parent and none of them is nested
+     * in another, the cycle check is a single lookup of the parent's ancestors and the subtrees are moved with one
+     * set-based move per chunk. Otherwise the moved assets go through {@link #updateHierarchy} one by one, as links
+     * read before a move do not tell whether a later move creates a cycle.
+     */
+    private void updateHierarchies(List<AssetEntity> assetEntities) {
+        if (assetEntities.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<AssetClosureEntity>> linksByDescendantId = findLinksToAssets(assetEntities.stream().map(AssetEntity::getId).collect(Collectors.toSet()));
+        List<AssetEntity> movedEntities = new ArrayList<>();
+        for (AssetEntity assetEntity : assetEntities) {
+            List<AssetClosureEntity> links = linksByDescendantId.getOrDefault(assetEntity.getId(), List.of());
+            if (links.stream().noneMatch(link -> link.getDepth() == 0)) {
+                // Not part of the hierarchy yet, which takes the same statements as a single save.
+                updateHierarchy(assetEntity);
+                continue;
+            }
+            assetLineageCache.invalidate(assetEntity.getId());
+            UUID currentParentId = links.stream().filter(link -> link.getDepth() == 1).map(AssetClosureEntity::getAncestorId).findFirst().orElse(null);
+            if (!Objects.equals(currentParentId, assetEntity.getParentId())) {
+                movedEntities.add(assetEntity);
+            }
+        }
+        if (movedEntities.isEmpty()) {
+            return;
+        }
+
+        UUID parentId = movedEntities.get(0).getParentId();
+        Set<UUID> movedIds = movedEntities.stream().map(AssetEntity::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        boolean sameParent = movedEntities.stream().allMatch(assetEntity -> Objects.equals(parentId, assetEntity.getParentId()));
+        boolean nested = movedIds.stream().anyMatch(id -> linksByDescendantId.get(id).stream()
+                .anyMatch(link -> link.getDepth() > 0 && movedIds.contains(link.getAncestorId())));
+        if (!sameParent || nested) {
+            movedEntities.forEach(this::updateHierarchy);
+            return;
+        }
+
+        if (parentId != null) {
+            Optional<UUID> cycleId = movedIds.contains(parentId) ? Optional.of(parentId)
+                    : assetClosureRepository.findAncestorIds(parentId).stream().filter(movedIds::contains).findFirst();
+            if (cycleId.isPresent()) {
+                throw new AssetHierarchyCycleException(cycleId.get(), parentId);
+            }
+        }
+        log.debug("AssetRepositoryService:updateHierarchies: Moving {} assets to parent id: {}", movedIds.size(), parentId);
+        List<UUID> movedIdList = List.copyOf(movedIds);
+        for (int from = 0; from < movedIdList.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            assetRepository.moveHierarchySubtrees(parentId, movedIdList.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, movedIdList.size())));
+        }
+    }
+
+    /**
+     * Keeps the closure table in line with the parent id of a saved asset. Only new assets and assets whose parent
+     * changed touch the closure table beyond the lookup of the current parent link.
+     */
+    private void updateHierarchy(AssetEntity assetEntity) {
+        List<AssetClosureEntity> links = assetClosureRepository.findByDescendantIdAndDepthLessThanEqual(assetEntity.getId(), 1);
+        if (links.stream().noneMatch(link -> link.getDepth() == 0)) {
+            if (assetEntity.getId().equals(assetEntity.getParentId())) {
+                throw new AssetHierarchyCycleException(assetEntity.getId(), assetEntity.getParentId());
+            }
+            assetRepository.insertHierarchyNode(assetEntity.getId(), assetEntity.getParentId());
+            return;
+        }
+        // The saved asset may be part of cached lineages with a different parent or promoted flag.
+        assetLineageCache.invalidate(assetEntity.getId());
+
+        UUID currentParentId = links.stream().filter(link -> link.getDepth() == 1).map(AssetClosureEntity::getAncestorId).findFirst().orElse(null);
+        if (!Objects.equals(currentParentId, assetEntity.getParentId())) {
+            log.debug("AssetRepositoryService:updateHierarchy: Moving asset id: {} from parent id: {} to parent id: {}", assetEntity.getId(), currentParentId, assetEntity.getParentId());
+            verifyParentIsNotNested(assetEntity.getId(), assetEntity.getParentId());
+            assetRepository.moveHierarchySubtree(assetEntity.getId(), assetEntity.getParentId());
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.exec.asset.management.util;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.springframework.util.DigestUtils;
+
+import com.exec.asset.management.domain.etag.AssetVersion;
+
+/**
+ * Utility class for the strong ETags of asset responses. Every write increments the version of the assets it
+ * changes, so the ETags are built from versions and never from the response bodies.
+ */
+public final class ETags {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    /**
+     * @return the ETag of a single asset.
+     */
+    public static String ofAsset(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param assets ids and versions of the assets of the page in the order they are returned.
+     * @param hasNext whether there is a next page.
+     * @param totalCount the number of all assets, null when it is not returned.
+     * @return the ETag of a page of assets.
+     */
+    public static String ofPage(List<AssetVersion> assets, boolean hasNext, Long totalCount) {
+        ByteBuffer buffer = ByteBuffer.allocate(assets.size() * 3 * Long.BYTES + 1 + Long.BYTES);
+        assets.forEach(asset -> buffer.putLong(asset.getId().getMostSignificantBits())
+                .putLong(asset.getId().getLeastSignificantBits())
+                .putLong(asset.getVersion()));
+        buffer.put((byte) (hasNext ? 1 : 0));
+        buffer.putLong(totalCount == null ? -1 : totalCount);
+        return "\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+
+    /**
+     * Compares like If-None-Match does, weak ETags match as well.
+     * @param header value of the If-None-Match header, may be null.
+     * @param eTag the current ETag.
+     */
+    public static boolean noneMatchHeaderMatches(String header, String eTag) {
+        return matches(header, eTag, true);
+    }
+
+    /**
+     * Compares like If-Match does, weak ETags never match.
+     * @param header value of the If-Match header, may be null.
+     * @param eTag the current ETag.
+     */
+    public static boolean matchHeaderMatches(String header, String eTag) {
+        return matches(header, eTag, false);
+    }
+
+    private static boolean matches(String header, String eTag, boolean weak) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals(ANY)) {
+                return true;
+            }
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                if (!weak) {
+                    continue;
+                }
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.exec.asset.management.util;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Resource that serializes the elements of a stream as newline delimited JSON while it is read. The stream is only
+ * opened when the content is read and only the line being read is held in memory, so the size of the stream does not
+ * matter. The content can be read once.
+ */
+public class JsonLinesResource<T> extends LinesResource<T> {
+
+    /**
+     * @param objectWriter serializes a single element.
+     * @param streamSupplier opens the stream of elements, the stream is closed with the input stream.
+     */
+    public JsonLinesResource(ObjectWriter objectWriter, Supplier<Stream<T>> streamSupplier) {
+        super(new byte[0], objectWriter::writeValueAsBytes, streamSupplier);
+    }
+
+    @Override
+    public String getDescription() {
+        return "JSON lines resource";
+    }
+}
@@ -1,6 +1,7 @@
 package com.exec.asset.management.util;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.MapperFeature;
@@ -22,6 +23,23 @@ public final class JsonUtils {
         return JsonUtils.Mapper.INSTANCE;
     }
 
+    /**
+     * Creates an object mapper configured like {@link #objectMapper()} that reads and writes the format of the
+     * factory, such as Smile or CBOR.
+     *
+     * @param factory the factory of the format, null for JSON.
+     * @return a new object mapper.
+     */
+    public static ObjectMapper newObjectMapper(JsonFactory factory) {
+        ObjectMapper o = new ObjectMapper(factory);
+        o.registerModule(new JavaTimeModule());
+        o.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+        o.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        o.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        o.configure(MapperFeature.USE_GETTERS_AS_SETTERS, false);
+        return o;
+    }
+
     public static ObjectWriter objectWriter(Class<?> clazz) {
         return JsonUtils.Mapper.writerCache.get(clazz);
     }
@@ -39,6 +57,15 @@ public final class JsonUtils {
         }
     }
 
+    public static byte[] toJsonBytes(ObjectWriter ow, Object o) {
+        try {
+            return ow.writeValueAsBytes(o);
+        }
+        catch (Exception var3) {
+            throw new IllegalStateException(var3);
+        }
+    }
+
     static final class Mapper {
         private static final ObjectMapper INSTANCE;
         static final ClassValue<ObjectReader> readerCache;
@@ -49,13 +76,7 @@ public final class JsonUtils {
         }
 
         static {
-            ObjectMapper o = new ObjectMapper();
-            o.registerModule(new JavaTimeModule());
-            o.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
-            o.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-            o.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            o.configure(MapperFeature.USE_GETTERS_AS_SETTERS, false);
-            INSTANCE = o;
+            INSTANCE = newObjectMapper(null);
             readerCache = new ClassValue<>() {
                 protected ObjectReader computeValue(Class<?> type) {
                     return JsonUtils.Mapper.INSTANCE.readerFor(type);
@@ -0,0 +1,139 @@
+package com.exec.asset.management.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * Resource that encodes the elements of a stream as lines of text while it is read, after an optional header line.
+ * The stream is only opened when the content is read and only the line being read is held in memory, so the size of
+ * the stream does not matter. The content can be read once.
+ */
+public class LinesResource<T> extends AbstractResource {
+
+    private static final int NEWLINE = '\n';
+
+    private final byte[] header;
+    private final LineEncoder<T> lineEncoder;
+    private final Supplier<Stream<T>> streamSupplier;
+
+    /**
+     * @param header the first line without its line break, no header line is written when it is empty.
+     * @param lineEncoder encodes a single element without the line break.
+     * @param streamSupplier opens the stream of elements, the stream is closed with the input stream.
+     */
+    public LinesResource(byte[] header, LineEncoder<T> lineEncoder, Supplier<Stream<T>> streamSupplier) {
+        this.header = header;
+        this.lineEncoder = lineEncoder;
+        this.streamSupplier = streamSupplier;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new LinesInputStream<>(header, lineEncoder, streamSupplier.get());
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public boolean isReadable() {
+        return true;
+    }
+
+    /**
+     * The length is unknown until the stream has been read, the content is sent in chunks.
+     */
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Lines resource";
+    }
+
+    /**
+     * Encodes a single element as a line.
+     */
+    @FunctionalInterface
+    public interface LineEncoder<T> {
+
+        byte[] encode(T element) throws IOException;
+    }
+
+    private static final class LinesInputStream<T> extends InputStream {
+        private final LineEncoder<T> lineEncoder;
+        private final Stream<T> stream;
+        private final Iterator<T> elements;
+        private byte[] line;
+        private int position;
+        private boolean newlinePending;
+
+        private LinesInputStream(byte[] header, LineEncoder<T> lineEncoder, Stream<T> stream) {
+            this.lineEncoder = lineEncoder;
+            this.stream = stream;
+            this.elements = stream.iterator();
+            this.line = header;
+            this.newlinePending = header.length > 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position < line.length) {
+                return line[position++] & 0xff;
+            }
+            if (newlinePending) {
+                newlinePending = false;
+                return NEWLINE;
+            }
+            return nextLine() ? read() : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int read = 0;
+            while (read < length) {
+                if (position < line.length) {
+                    int count = Math.min(length - read, line.length - position);
+                    System.arraycopy(line, position, buffer, offset + read, count);
+                    position += count;
+                    read += count;
+                }
+                else if (newlinePending) {
+                    newlinePending = false;
+                    buffer[offset + read++] = NEWLINE;
+                }
+                else if (!nextLine()) {
+                    break;
+                }
+            }
+            return read == 0 ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+            stream.close();
+        }
+
+        private boolean nextLine() throws IOException {
+            if (!elements.hasNext()) {
+                return false;
+            }
+            line = lineEncoder.encode(elements.next());
+            position = 0;
+            newlinePending = true;
+            return true;
+        }
+    }
+}
@@ -12,7 +12,19 @@ public class MultiTenantConnectionProviderImpl extends AbstractDataSourceBasedMu
     private final Map<String, DataSource> dataSources = new HashMap<>();
 
     public MultiTenantConnectionProviderImpl(Map<String, DataSource> dataSources) {
-        this.dataSources.putAll(dataSources);
+        this(dataSources, Map.of());
+    }
+
+    /**
+     * Read-only transactions of a tenant with a replica read from the replica, everything else uses the primary.
+     * @param dataSources primary data source by tenant id.
+     * @param replicaDataSources replica data source by tenant id, for the tenants that have one.
+     */
+    public MultiTenantConnectionProviderImpl(Map<String, DataSource> dataSources, Map<String, DataSource> replicaDataSources) {
+        dataSources.forEach((tenantIdentifier, primary) -> {
+            DataSource replica = replicaDataSources.get(tenantIdentifier);
+            this.dataSources.put(tenantIdentifier, replica == null ? primary : ReadReplicaRoutingDataSource.of(primary, replica));
+        });
     }
 
     @Override
@@ -6,7 +6,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class MultiTenantIdentifierResolver implements CurrentTenantIdentifierResolver {
 
-    private static final String DEFAULT_TENANT_ID = "public";
+    public static final String DEFAULT_TENANT_ID = "public";
 
     @Override
     public String resolveCurrentTenantIdentifier() {
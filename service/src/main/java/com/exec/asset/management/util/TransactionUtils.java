@@ -0,0 +1,85 @@
+package com.exec.asset.management.util;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for work that has to wait for the current transaction.
+ */
+public final class TransactionUtils {
+    private TransactionUtils() {
+    }
+
+    /**
+     * Runs the given task once the current transaction commits, or right away when there is no transaction.
+     * Nothing is run when the transaction rolls back.
+     * @param task to run.
+     */
+    public static void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * Like {@link #runAfterCommit(Runnable)}, but runs the task only once per transaction however often it is called
+     * with the same key.
+     * @param key identifies the task within the transaction.
+     * @param task to run.
+     */
+    public static void runOnceAfterCommit(Object key, Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(key, task);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+    }
+
+    /**
+     * Opens a stream inside a read-only transaction that lasts until the stream is closed, so the stream can be
+     * consumed after the method that created it returned. Joins the current transaction if there is one.
+     * @param transactionManager that manages the transaction.
+     * @param streamSupplier opens the stream, typically a streaming repository query.
+     * @return the stream, it has to be closed.
+     */
+    public static <T> Stream<T> streamInReadOnlyTransaction(PlatformTransactionManager transactionManager, Supplier<Stream<T>> streamSupplier) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        definition.setReadOnly(true);
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        try {
+            return streamSupplier.get().onClose(() -> transactionManager.commit(status));
+        }
+        catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * The order in which SQL Server sorts uniqueidentifier values, and so the order of the asset keys since the v1.3
+ * migration. SQL Server compares the last six bytes first, then the fourth group, then the third and second groups
+ * with their bytes swapped and finally the first group with its bytes reversed. Neither the string form nor
+ * {@link UUID#compareTo} matches it.
+ */
+public final class UniqueIdentifierOrder {
+
+    /**
+     * Sorts ids the way SQL Server sorts them as uniqueidentifier values.
+     */
+    public static final Comparator<UUID> COMPARATOR = Comparator
+            .comparingLong((UUID id) -> id.getLeastSignificantBits() & 0xFFFF_FFFF_FFFFL)
+            .thenComparingLong(id -> id.getLeastSignificantBits() >>> 48)
+            .thenComparingLong(id -> Short.toUnsignedLong(Short.reverseBytes((short) id.getMostSignificantBits())))
+            .thenComparingLong(id -> Short.toUnsignedLong(Short.reverseBytes((short) (id.getMostSignificantBits() >>> 16))))
+            .thenComparingLong(id -> Integer.toUnsignedLong(Integer.reverseBytes((int) (id.getMostSignificantBits() >>> 32))));
+
+    private UniqueIdentifierOrder() {
+    }
+}
@@ -0,0 +1,12 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.UUID;
+
+/**
+ * Creates the ids of entities and events. Implementations are called concurrently and must not block.
+ */
+@FunctionalInterface
+public interface UuidGenerator {
+
+    UUID generate();
+}
@@ -0,0 +1,34 @@
+package com.exec.asset.management.util.uuid;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Hibernate id generator for UUID keys. The strategy is read from the {@value #STRATEGY_SETTING} setting and is
+ * {@link UuidStrategy#COMB} when the setting is missing.
+ */
+public class UuidIdentifierGenerator implements IdentifierGenerator, Configurable {
+
+    public static final String NAME = "asset-uuid";
+    public static final String STRATEGY_SETTING = "asset.id.uuid_strategy";
+
+    private UuidGenerator uuidGenerator = UuidStrategy.COMB;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        uuidGenerator = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(STRATEGY_SETTING, value -> UuidStrategy.valueOf(value.toString()), UuidStrategy.COMB);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return uuidGenerator.generate();
+    }
+}
@@ -0,0 +1,59 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The built in id generators. They draw their random bits from {@link ThreadLocalRandom}, so they neither lock nor
+ * share state between threads, unlike {@link UUID#randomUUID()} which goes through a single {@code SecureRandom}. The
+ * ids are unique, not unpredictable, and must not be used as secrets.
+ */
+public enum UuidStrategy implements UuidGenerator {
+
+    /**
+     * Version 4 ids without any order.
+     */
+    RANDOM {
+        @Override
+        public UUID generate() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mostSigBits = random.nextLong() & ~VERSION_MASK | 0x4000L;
+            long leastSigBits = random.nextLong() & ~VARIANT_MASK | VARIANT;
+            return new UUID(mostSigBits, leastSigBits);
+        }
+    },
+
+    /**
+     * Version 7 ids that start with the milliseconds since the epoch, so they sort by creation time as strings and as
+     * bytes. Suited to event ids and to databases comparing ids byte by byte.
+     */
+    TIME_ORDERED {
+        @Override
+        public UUID generate() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mostSigBits = System.currentTimeMillis() << 16 | 0x7000L | random.nextInt(1 << 12);
+            long leastSigBits = random.nextLong() & ~VARIANT_MASK | VARIANT;
+            return new UUID(mostSigBits, leastSigBits);
+        }
+    },
+
+    /**
+     * Version 4 ids whose last six bytes hold the milliseconds since the epoch. SQL Server compares uniqueidentifier
+     * values starting with these bytes, so new rows are appended to the end of a clustered primary key instead of
+     * splitting pages all over it.
+     */
+    COMB {
+        @Override
+        public UUID generate() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mostSigBits = random.nextLong() & ~VERSION_MASK | 0x4000L;
+            long leastSigBits = VARIANT | (random.nextLong() & 0x3FFF_0000_0000_0000L) | (System.currentTimeMillis() & TIMESTAMP_MASK);
+            return new UUID(mostSigBits, leastSigBits);
+        }
+    };
+
+    private static final long VERSION_MASK = 0xF000L;
+    private static final long VARIANT_MASK = 0xC000_0000_0000_0000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long TIMESTAMP_MASK = 0xFFFF_FFFF_FFFFL;
+}
@@ -0,0 +1,114 @@
+package com.exec.asset.management;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.precondition.core.PreconditionContainer;
+import liquibase.resource.ClassLoaderResourceAccessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The test profile creates the schema from the entity mappings, so the migrations are checked here. The changelog is
+ * validated on H2 in every build. The changesets only SQL Server runs, such as the v1.3 conversion of string keys to
+ * uniqueidentifier, are applied when {@code LIQUIBASE_TEST_JDBC_URL}, {@code LIQUIBASE_TEST_JDBC_USER} and
+ * {@code LIQUIBASE_TEST_JDBC_PASSWORD} point at an empty SQL Server database.
+ */
+public class LiquibaseChangelogTest {
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.yaml";
+    // create_table_asset, create_table_asset_closure, backfill_asset_closure and create_table_promotion_jobs.
+    private static final int CHANGESETS_BEFORE_KEY_CONVERSION = 4;
+
+    @Test
+    public void changelogValidates() throws SQLException, LiquibaseException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:liquibase-changelog", "sa", "")) {
+            Liquibase liquibase = liquibase(connection);
+
+            liquibase.validate();
+
+            ChangeSet keyConversion = liquibase.getDatabaseChangeLog().getChangeSets().stream()
+                    .filter(changeSet -> changeSet.getId().equals("convert_asset_keys_to_uniqueidentifier"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(Set.of("mssql"), keyConversion.getDbmsSet());
+            assertEquals(PreconditionContainer.FailOption.MARK_RAN, keyConversion.getPreconditions().getOnFail());
+            assertEquals(keyConversion, liquibase.getDatabaseChangeLog().getChangeSets().get(CHANGESETS_BEFORE_KEY_CONVERSION));
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "LIQUIBASE_TEST_JDBC_URL", matches = ".+")
+    public void changelogConvertsStringKeysOnSqlServer() throws SQLException, LiquibaseException {
+        UUID parentId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection(System.getenv("LIQUIBASE_TEST_JDBC_URL"),
+                System.getenv("LIQUIBASE_TEST_JDBC_USER"), System.getenv("LIQUIBASE_TEST_JDBC_PASSWORD"))) {
+            // The tables as the entity mappings create them, with the changesets before the conversion recorded as run.
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE assets (id varchar(255) NOT NULL PRIMARY KEY, promoted bit DEFAULT 0, parent_id varchar(255))");
+                statement.execute("CREATE TABLE asset_closure (ancestor_id varchar(255) NOT NULL, descendant_id varchar(255) NOT NULL, depth int NOT NULL,"
+                        + " PRIMARY KEY (ancestor_id, descendant_id))");
+                statement.execute("CREATE TABLE promotion_jobs (id uniqueidentifier NOT NULL PRIMARY KEY, root_asset_id uniqueidentifier NOT NULL,"
+                        + " status varchar(20) NOT NULL, total_count bigint, processed_count bigint DEFAULT 0, failed_count bigint DEFAULT 0)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO assets (id, promoted, parent_id) VALUES (?, 0, ?)")) {
+                insert.setString(1, parentId.toString());
+                insert.setString(2, null);
+                insert.execute();
+                insert.setString(1, childId.toString());
+                insert.setString(2, parentId.toString());
+                insert.execute();
+            }
+            Liquibase liquibase = liquibase(connection);
+            for (int i = 0; i < CHANGESETS_BEFORE_KEY_CONVERSION; i++) {
+                liquibase.markNextChangeSetRan(new Contexts(), new LabelExpression());
+            }
+
+            liquibase.update(new Contexts(), new LabelExpression());
+
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS"
+                            + " WHERE TABLE_NAME IN ('assets', 'asset_closure') AND COLUMN_NAME IN ('id', 'parent_id', 'ancestor_id', 'descendant_id')"
+                            + " AND DATA_TYPE = 'uniqueidentifier'")) {
+                resultSet.next();
+                assertEquals(4, resultSet.getInt(1));
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT parent_id, version FROM assets WHERE id = ?")) {
+                select.setString(1, childId.toString());
+                try (ResultSet resultSet = select.executeQuery()) {
+                    assertTrue(resultSet.next());
+                    assertEquals(parentId.toString(), resultSet.getString(1).toLowerCase());
+                    assertEquals(0, resultSet.getLong(2));
+                }
+            }
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM sys.indexes WHERE name = 'ix_assets_parent_promoted'")) {
+                resultSet.next();
+                assertEquals(1, resultSet.getInt(1));
+            }
+        }
+    }
+
+    private static Liquibase liquibase(Connection connection) throws LiquibaseException {
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        return new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+    }
+}
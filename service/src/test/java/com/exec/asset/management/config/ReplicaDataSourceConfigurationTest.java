@@ -0,0 +1,67 @@
+package com.exec.asset.management.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicaDataSourceConfigurationTest {
+
+    private final ReplicaDataSourceConfiguration replicaDataSourceConfiguration = new ReplicaDataSourceConfiguration();
+    private final ReplicaDataSourceProperties replicaDataSourceProperties = new ReplicaDataSourceProperties();
+    private final Map<String, Object> hibernateProperties = new HashMap<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        replicaDataSourceConfiguration.closeReplicaDataSources();
+    }
+
+    @Test
+    public void withoutReplicasHibernateUsesTheApplicationDataSource() {
+        customize();
+
+        assertTrue(hibernateProperties.isEmpty());
+    }
+
+    @Test
+    public void readOnlyTransactionsOfATenantWithAReplicaUseTheReplica() throws SQLException {
+        DataSourceProperties replicaProperties = new DataSourceProperties();
+        replicaProperties.setUrl("jdbc:h2:mem:configured-replica;DB_CLOSE_DELAY=-1");
+        replicaDataSourceProperties.getReplicas().put(MultiTenantIdentifierResolver.DEFAULT_TENANT_ID, replicaProperties);
+        customize();
+
+        MultiTenantConnectionProvider connectionProvider = (MultiTenantConnectionProvider) hibernateProperties.get(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER);
+        assertTrue(connectionUrl(connectionProvider).contains("configured-primary"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertTrue(connectionUrl(connectionProvider).contains("configured-replica"));
+        }
+        finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private void customize() {
+        replicaDataSourceConfiguration.replicaRoutingCustomizer(replicaDataSourceProperties,
+                new DriverManagerDataSource("jdbc:h2:mem:configured-primary;DB_CLOSE_DELAY=-1"), new MultiTenantIdentifierResolver())
+                .customize(hibernateProperties);
+    }
+
+    private String connectionUrl(MultiTenantConnectionProvider connectionProvider) throws SQLException {
+        try (Connection connection = connectionProvider.getConnection(MultiTenantIdentifierResolver.DEFAULT_TENANT_ID)) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
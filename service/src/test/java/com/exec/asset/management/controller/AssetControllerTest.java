@@ -1,55 +1,84 @@
 package com.exec.asset.management.controller;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.exec.asset.management.api.model.AssetListModel;
 import com.exec.asset.management.api.model.AssetModel;
+import com.exec.asset.management.config.PromotionProperties;
 import com.exec.asset.management.domain.entities.AssetEntity;
 import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
 import com.exec.asset.management.exception.AssetDoesNotExistException;
+import com.exec.asset.management.exception.AssetPreconditionFailedException;
+import com.exec.asset.management.exception.InvalidCursorException;
 import com.exec.asset.management.exception.MismatchedIds;
 import com.exec.asset.management.exception.ParentAssetDoesNotExistException;
 import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
 import com.exec.asset.management.repository.AssetRepository;
 import com.exec.asset.management.service.controller.AssetControllerService;
+import com.exec.asset.management.service.ingest.AssetImportService;
 import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.promotion.AssetPromotionService;
+import com.exec.asset.management.service.promotion.ParallelAssetPromotionService;
+import com.exec.asset.management.service.promotion.PromotionJobService;
 import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @DataJpaTest
 public class AssetControllerTest {
     @Autowired
     private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     private AssetPublisherService assetPublisherService;
+    private PromotionJobService promotionJobService;
     private AssetController assetController;
+    private AssetRepositoryService assetRepositoryService;
     private final AssetMapper assetMapper = new AssetMapper();
 
     @BeforeEach
     void init() {
         assetPublisherService = mock(AssetPublisherService.class);
-        AssetControllerService assetControllerService = new AssetControllerService(new AssetRepositoryService(assetRepository), new AssetMapper(), assetPublisherService);
-        assetController = new AssetController(assetControllerService);
+        promotionJobService = mock(PromotionJobService.class);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository);
+        AssetPromotionService assetPromotionService = new AssetPromotionService(assetRepositoryService, assetMapper, assetPublisherService,
+                new PromotionProperties(), mock(ParallelAssetPromotionService.class), promotionJobService);
+        AssetControllerService assetControllerService = new AssetControllerService(assetRepositoryService, assetMapper, assetPromotionService, transactionManager);
+        assetController = new AssetController(assetControllerService, mock(AssetImportService.class));
     }
 
     @Test
     public void testGetAssetsByIdWithValidId() {
         UUID assetId = assetRepository.save(AssetEntity.builder().promoted(false).build()).getId();
 
-        var response = assetController.getAssetById(assetId);
+        var response = assetController.getAssetById(assetId, null);
 
         assertFalse(response.getBody().getPromoted());
         assertNull(response.getBody().getParentId());
@@ -61,7 +90,7 @@ public class AssetControllerTest {
         Exception resultException = null;
 
         try {
-            assetController.getAssetById(UUID.randomUUID());
+            assetController.getAssetById(UUID.randomUUID(), null);
         }
         catch (AssetDoesNotExistException e) {
             resultException = e;
@@ -76,16 +105,64 @@ public class AssetControllerTest {
         assetRepository.save(AssetEntity.builder().build());
         assetRepository.save(AssetEntity.builder().build());
 
-        var response = assetController.listAssets(1, 1);
+        var response = assetController.listAssets(1, 1, null, null, null);
 
         assertEquals(1, response.getBody().getMeta().getPage().getPageNumber());
         assertEquals(1, response.getBody().getMeta().getPage().getPageSize());
         assertEquals(3, response.getBody().getMeta().getPage().getTotalCount());
         assertEquals(1, response.getBody().getCount());
 
-        response = assetController.listAssets(0, null);
+        response = assetController.listAssets(0, null, null, null, null);
         assertEquals(AssetController.PAGE_SIZE, response.getBody().getMeta().getPage().getPageSize());
         assertTrue(response.getBody().getEntities().stream().anyMatch(responseModel -> responseModel.getId().equals(id)));
+        assertNull(response.getBody().getMeta().getPage().getNextCursor());
+    }
+
+    @Test
+    public void listAssetsWithCursor() {
+        for (int i = 0; i < 5; i++) {
+            assetRepository.save(AssetEntity.builder().build());
+        }
+        List<UUID> ids = new ArrayList<>();
+
+        var response = assetController.listAssets(null, 2, null, false, null);
+        assertNull(response.getBody().getMeta().getPage().getTotalCount());
+        while (true) {
+            response.getBody().getEntities().forEach(asset -> ids.add(asset.getId()));
+            String nextCursor = response.getBody().getMeta().getPage().getNextCursor();
+            if (nextCursor == null) {
+                break;
+            }
+            response = assetController.listAssets(null, 2, nextCursor, false, null);
+            assertNull(response.getBody().getMeta().getPage().getPageNumber());
+        }
+
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted(Comparator.comparing(UUID::toString)).collect(Collectors.toList()), ids);
+        assertEquals(5, assetController.listAssets(null, 2, "AAAAAAAAAAAAAAAAAAAAAA", true, null).getBody().getMeta().getPage().getTotalCount());
+        assertThrows(InvalidCursorException.class, () -> assetController.listAssets(null, 2, "not-a-cursor", true, null));
+    }
+
+    @Test
+    public void readsAreNotModifiedWhileTheETagMatches() {
+        UUID assetId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        String eTag = assetController.getAssetById(assetId, null).getHeaders().getETag();
+        String pageETag = assetController.listAssets(null, 2, null, true, null).getHeaders().getETag();
+
+        var response = assetController.getAssetById(assetId, "W/\"other\", " + eTag);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, assetController.listAssets(null, 2, null, true, pageETag).getStatusCode());
+        assertEquals(HttpStatus.OK, assetController.listAssets(null, 2, null, false, pageETag).getStatusCode());
+
+        assetRepositoryService.promoteAssets(List.of(assetId));
+
+        response = assetController.getAssetById(assetId, eTag);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getPromoted());
+        assertNotEquals(eTag, response.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, assetController.listAssets(null, 2, null, true, pageETag).getStatusCode());
     }
 
     @Test
@@ -158,10 +235,10 @@ public class AssetControllerTest {
     @Test
     public void deleteAssetWithValidIdAndChildrenAssets() {
         UUID randomParentId = UUID.randomUUID();
-        UUID assetId = assetRepository.save(AssetEntity.builder().parentId(randomParentId).build()).getId();
+        UUID assetId = assetRepositoryService.saveAsset(AssetEntity.builder().parentId(randomParentId).build()).getId();
 
-        AssetEntity asset2 = assetRepository.save(AssetEntity.builder().parentId(assetId).build());
-        AssetEntity asset3 = assetRepository.save(AssetEntity.builder().parentId(assetId).build());
+        AssetEntity asset2 = assetRepositoryService.saveAsset(AssetEntity.builder().parentId(assetId).build());
+        AssetEntity asset3 = assetRepositoryService.saveAsset(AssetEntity.builder().parentId(assetId).build());
 
         var response = assetController.deleteAsset(assetId);
 
@@ -193,13 +270,13 @@ public class AssetControllerTest {
     @Test
     public void updateAssetMismatchIdAndAssetModelId() {
         Exception resultException = null;
-        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.save(AssetEntity.builder().promoted(false).build()));
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
         assetModel.setPromoted(true);
         AssetListModel assetListModel = new AssetListModel();
         assetListModel.setParentAsset(assetModel);
 
         try {
-            assetController.updateAsset(UUID.randomUUID(), assetListModel);
+            assetController.updateAsset(UUID.randomUUID(), false, null, assetListModel);
         }
         catch (MismatchedIds e) {
             resultException = e;
@@ -211,16 +288,58 @@ public class AssetControllerTest {
 
     @Test
     public void updateAssetNoChildren() {
-        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.save(AssetEntity.builder().promoted(false).build()));
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
         assetModel.setPromoted(true);
 
         AssetListModel assetListModel = new AssetListModel();
         assetListModel.setParentAsset(assetModel);
 
-        var response = assetController.updateAsset(assetModel.getId(), assetListModel);
+        var response = assetController.updateAsset(assetModel.getId(), null, null, assetListModel);
 
-        verify(assetPublisherService).publishAssetPromotedEvent(any(AssetPromotionEventModel.class));
+        assertEquals(1, publishedPromotionEvents().size());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().getPromoted());
         assertTrue(assetRepository.getById(assetModel.getId()).getPromoted());
     }
+
+    @Test
+    public void updateAssetAsyncStartsPromotionJob() {
+        UUID jobId = UUID.randomUUID();
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(assetModel.getId()).build());
+        assetModel.setPromoted(true);
+        when(promotionJobService.createJob(assetModel.getId())).thenReturn(jobId);
+
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetModel);
+
+        var response = assetController.updateAsset(assetModel.getId(), true, null, assetListModel);
+
+        // Only the asset itself is promoted within the request, the job takes care of the nested asset.
+        assertEquals(1, publishedPromotionEvents().size());
+        verify(promotionJobService).createJob(assetModel.getId());
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/v1/promotion-jobs/" + jobId, response.getHeaders().getLocation().toString());
+        assertTrue(response.getBody().getPromoted());
+    }
+
+    @Test
+    public void updateAssetHonoursIfMatch() {
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
+        String eTag = assetController.getAssetById(assetModel.getId(), null).getHeaders().getETag();
+
+        // Only an update that changes the asset gives it a new ETag.
+        assetModel.setPromoted(true);
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetModel);
+
+        assertEquals(HttpStatus.OK, assetController.updateAsset(assetModel.getId(), null, eTag, assetListModel).getStatusCode());
+        assertThrows(AssetPreconditionFailedException.class, () -> assetController.updateAsset(assetModel.getId(), null, eTag, assetListModel));
+    }
+
+    private List<AssetPromotionEventModel> publishedPromotionEvents() {
+        ArgumentCaptor<List<AssetPromotionEventModel>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(assetPublisherService, Mockito.atLeast(0)).publishAssetsPromotedEvents(any(UUID.class), argumentCaptor.capture());
+        return argumentCaptor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
 }
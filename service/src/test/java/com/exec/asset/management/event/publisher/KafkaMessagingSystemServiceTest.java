@@ -0,0 +1,192 @@
+package com.exec.asset.management.event.publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.exec.asset.management.domain.messages.AssetAggregateEvent;
+import com.exec.asset.management.domain.messages.AssetAggregateEventEntity;
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.event.codec.PayloadCodec;
+import com.exec.asset.management.event.config.BaseKafkaConfiguration;
+import com.exec.asset.management.event.config.KafkaProperties;
+import com.exec.asset.management.util.JsonUtils;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class KafkaMessagingSystemServiceTest {
+    private static final String TOPIC = "asset.events.asset-promoted";
+
+    private BaseKafkaConfiguration.Kafka kafkaProperties;
+    private BaseKafkaConfiguration kafkaConfiguration;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        Properties properties = new Properties();
+        properties.setProperty("bootstrap.servers", "localhost:9092");
+        properties.setProperty("key.serializer", StringSerializer.class.getName());
+        properties.setProperty("value.serializer", StringSerializer.class.getName());
+        properties.setProperty("linger.ms", "5");
+        properties.setProperty("topics.asset-promotion", TOPIC);
+        properties.setProperty("max-in-flight", "2");
+        properties.setProperty("max-in-flight-wait-ms", "10");
+        properties.setProperty("profiles.bulk.topics", "other.topic, " + TOPIC);
+        properties.setProperty("profiles.bulk.linger.ms", "20");
+        properties.setProperty("profiles.bulk.compression.type", "lz4");
+        kafkaProperties = new BaseKafkaConfiguration.Kafka();
+        kafkaProperties.setKafka(properties);
+
+        kafkaTemplate = mock(KafkaTemplate.class);
+        kafkaConfiguration = mock(BaseKafkaConfiguration.class);
+        when(kafkaConfiguration.kafkaProperties()).thenReturn(kafkaProperties);
+        when(kafkaConfiguration.kafkaTemplateForTopic(TOPIC)).thenReturn(kafkaTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void recordHeadersMatchTheMessageHeaders() {
+        AssetAggregateEventEntity event = event();
+        event.setMsgSysHeaders(Map.of("traceId", "trace", AssetAggregateEventMessage.Headers.ASSET_ID_HEADER_NAME, "overridden"));
+        event.setPartitionKey("key");
+
+        ProducerRecord<String, byte[]> producerRecord = kafkaMessagingSystemService().createRecord(event);
+
+        Map<String, String> headers = new HashMap<>();
+        for (Header header : producerRecord.headers()) {
+            assertNull(headers.put(header.key(), new String(header.value(), StandardCharsets.UTF_8)));
+        }
+        Map<String, String> expectedHeaders = new HashMap<>();
+        expectedHeaders.put("traceId", "trace");
+        JsonUtils.objectMapper().convertValue(AssetAggregateEventMessage.of(event).getHeaders(), Map.class)
+                .forEach((key, value) -> expectedHeaders.put((String) key, (String) value));
+        assertEquals(expectedHeaders, headers);
+        assertEquals(TOPIC, producerRecord.topic());
+        assertEquals("key", producerRecord.key());
+        assertEquals("{}", new String(producerRecord.value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void sendsBeyondTheInFlightMaximumWaitForAnAcknowledgement() {
+        SettableListenableFuture<SendResult<String, byte[]>> firstAcknowledgement = new SettableListenableFuture<>();
+        SettableListenableFuture<SendResult<String, byte[]>> secondAcknowledgement = new SettableListenableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(firstAcknowledgement, secondAcknowledgement, new SettableListenableFuture<>());
+        KafkaMessagingSystemService kafkaMessagingSystemService = kafkaMessagingSystemService();
+
+        kafkaMessagingSystemService.send(event());
+        kafkaMessagingSystemService.send(event());
+        assertThrows(KafkaException.class, () -> kafkaMessagingSystemService.send(event()));
+
+        firstAcknowledgement.set(null);
+        secondAcknowledgement.setException(new IllegalStateException("partition unavailable"));
+        kafkaMessagingSystemService.send(event());
+
+        assertEquals(1, meterRegistry.timer("asset.kafka.send", "topic", TOPIC, "outcome", "success").count());
+        assertEquals(1, meterRegistry.timer("asset.kafka.send", "topic", TOPIC, "outcome", "failure").count());
+    }
+
+    @Test
+    public void profilesLimitTheirInFlightSendsOnTheirOwn() {
+        String defaultProfileTopic = "asset.events.asset-created";
+        KafkaTemplate<String, byte[]> defaultKafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaConfiguration.kafkaTemplateForTopic(defaultProfileTopic)).thenReturn(defaultKafkaTemplate);
+        when(defaultKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new SettableListenableFuture<>());
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new SettableListenableFuture<>());
+        kafkaProperties.getKafka().setProperty("profiles.bulk.max-in-flight", "3");
+        KafkaMessagingSystemService kafkaMessagingSystemService = kafkaMessagingSystemService();
+
+        for (int i = 0; i < 3; i++) {
+            kafkaMessagingSystemService.send(event());
+        }
+        assertThrows(KafkaException.class, () -> kafkaMessagingSystemService.send(event()));
+
+        // The bulk profile is saturated, sends of the default profile still go out up to its own limit.
+        AssetAggregateEventEntity defaultProfileEvent = event();
+        defaultProfileEvent.setMsgSysTopic(defaultProfileTopic);
+        kafkaMessagingSystemService.send(defaultProfileEvent);
+        kafkaMessagingSystemService.send(defaultProfileEvent);
+        assertThrows(KafkaException.class, () -> kafkaMessagingSystemService.send(defaultProfileEvent));
+        assertEquals(3, kafkaProperties.getMaxInFlight("bulk"));
+        assertEquals(2, kafkaProperties.getMaxInFlight(KafkaProperties.DEFAULT_PROFILE));
+        assertEquals(5, kafkaProperties.buildProducerConfig("bulk").originals().size());
+    }
+
+    @Test
+    public void profilesOverrideTheProducerSettingsOfTheirTopics() {
+        assertEquals("bulk", kafkaProperties.profileOf(TOPIC));
+        assertEquals(KafkaProperties.DEFAULT_PROFILE, kafkaProperties.profileOf("unknown.topic"));
+
+        Map<String, Object> defaultConfig = kafkaProperties.buildProducerConfig().originals();
+        Map<String, Object> bulkConfig = kafkaProperties.buildProducerConfig("bulk").originals();
+
+        assertEquals(4, defaultConfig.size());
+        assertEquals("5", defaultConfig.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(5, bulkConfig.size());
+        assertEquals("localhost:9092", bulkConfig.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        assertEquals("20", bulkConfig.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("lz4", bulkConfig.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    }
+
+    @Test
+    public void payloadsAreEncodedWithTheCodecOfTheirTopic() {
+        kafkaProperties.getKafka().setProperty("codecs.cbor", TOPIC);
+        AssetPromotionEventModel assetPromotionEventModel = AssetPromotionEventModel.builder().assetId(UUID.randomUUID()).parentId(UUID.randomUUID()).promoted(true).build();
+
+        AssetAggregateEventEntity cborEvent = kafkaMessagingSystemService().mapToEntity(AssetAggregateEvent.builder()
+                .aggregate(assetPromotionEventModel)
+                .mediaType(AssetPromotionEventModel.MEDIA_TYPE)
+                .msgSysTopic(TOPIC)
+                .build());
+        AssetAggregateEventEntity jsonEvent = kafkaMessagingSystemService().mapToEntity(AssetAggregateEvent.builder()
+                .aggregate(assetPromotionEventModel)
+                .msgSysTopic("other.topic")
+                .build());
+
+        assertEquals("application/vnd.asset-promoted.v1+cbor", cborEvent.getContentType());
+        assertEquals(assetPromotionEventModel, PayloadCodec.CBOR.decode(cborEvent.getPayload(), AssetPromotionEventModel.class));
+        assertEquals("application/json", jsonEvent.getContentType());
+        assertEquals(assetPromotionEventModel, PayloadCodec.JSON.decode(jsonEvent.getPayload(), AssetPromotionEventModel.class));
+        assertTrue(cborEvent.getPayload().length < jsonEvent.getPayload().length);
+    }
+
+    private KafkaMessagingSystemService kafkaMessagingSystemService() {
+        return new KafkaMessagingSystemService(kafkaConfiguration, new MultiTenantIdentifierResolver(), UuidStrategy.TIME_ORDERED, meterRegistry);
+    }
+
+    private static AssetAggregateEventEntity event() {
+        return AssetAggregateEventEntity.builder()
+                .eventId(UUID.randomUUID())
+                .eventName("asset-promoted")
+                .msgSysTopic(TOPIC)
+                .assetId(UUID.randomUUID().toString())
+                .tenantId("public")
+                .createdAt(new Date())
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+}
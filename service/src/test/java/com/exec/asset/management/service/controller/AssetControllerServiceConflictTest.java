@@ -0,0 +1,173 @@
+package com.exec.asset.management.service.controller;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.api.model.AssetListModel;
+import com.exec.asset.management.api.model.AssetModel;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.exception.AssetUpdateConflictException;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.hierarchy.AssetHierarchyIndexService;
+import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.promotion.AssetPromotionService;
+import com.exec.asset.management.service.promotion.ParallelAssetPromotionService;
+import com.exec.asset.management.service.promotion.PromotionJobService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent changes are committed by another thread while an update runs, so the test data has to be committed
+ * instead of living in the usual rolled back test transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AssetControllerServiceConflictTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private AssetHierarchyIndexService assetHierarchyIndexService;
+    private AssetRepositoryService assetRepositoryService;
+    private AssetControllerService assetControllerService;
+    private final AssetMapper assetMapper = new AssetMapper();
+
+    @BeforeEach
+    void init() {
+        assetHierarchyIndexService = mock(AssetHierarchyIndexService.class);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService);
+        AssetPromotionService assetPromotionService = new AssetPromotionService(assetRepositoryService, assetMapper, mock(AssetPublisherService.class),
+                new PromotionProperties(), mock(ParallelAssetPromotionService.class), mock(PromotionJobService.class));
+        assetControllerService = new AssetControllerService(assetRepositoryService, assetMapper, assetPromotionService, transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assetClosureRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    public void updateAssetListRepeatsAnUpdateThatLostAgainstAConcurrentChange() {
+        UUID assetId = saveRoot();
+        UUID otherRootId = saveRoot();
+        UUID childId = saveRoot();
+        AtomicInteger attempts = new AtomicInteger();
+        // Another request moves the asset while the first attempt re-links the child.
+        whenChildIsLinked(childId, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                moveConcurrently(assetId, otherRootId);
+            }
+        });
+
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.findById(assetId).orElseThrow());
+        assetModel.setPromoted(true);
+        AssetModel updated = assetControllerService.updateAssetList(assetList(assetModel, childId), assetId);
+
+        assertEquals(2, attempts.get());
+        assertTrue(updated.getPromoted());
+        // The update is repeated on the moved asset instead of undoing the move.
+        assertEquals(otherRootId, updated.getParentId());
+        assertEquals(assetId, assetRepository.findById(childId).orElseThrow().getParentId());
+        assertTrue(assetRepository.findById(assetId).orElseThrow().getPromoted());
+    }
+
+    @Test
+    public void updateAssetListGivesUpWithAConflictWhenEveryAttemptLost() {
+        UUID assetId = saveRoot();
+        UUID firstRootId = saveRoot();
+        UUID secondRootId = saveRoot();
+        UUID newParentId = saveRoot();
+        UUID childId = saveRoot();
+        AtomicInteger attempts = new AtomicInteger();
+        whenChildIsLinked(childId, () -> moveConcurrently(assetId, attempts.incrementAndGet() % 2 == 0 ? firstRootId : secondRootId));
+
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.findById(assetId).orElseThrow());
+        assetModel.setParentId(newParentId);
+        assertThrows(AssetUpdateConflictException.class, () -> assetControllerService.updateAssetList(assetList(assetModel, childId), assetId));
+
+        assertEquals(3, attempts.get());
+        // Every attempt was rolled back.
+        assertNull(assetRepository.findById(childId).orElseThrow().getParentId());
+        assertNotEquals(newParentId, assetRepository.findById(assetId).orElseThrow().getParentId());
+        assertFalse(assetRepository.findById(assetId).orElseThrow().getPromoted());
+    }
+
+    @Test
+    public void updateAssetListPromotedConcurrentlySucceedsWithoutRepeating() {
+        UUID assetId = saveRoot();
+        UUID childId = saveRoot();
+        AtomicInteger attempts = new AtomicInteger();
+        // Another request promotes the asset after the update read it, the update's own promotion then changes nothing.
+        whenChildIsLinked(childId, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                        .executeWithoutResult(status -> assetRepositoryService.promoteAssets(List.of(assetId)))).join();
+            }
+        });
+
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.findById(assetId).orElseThrow());
+        assetModel.setPromoted(true);
+        AssetModel updated = assetControllerService.updateAssetList(assetList(assetModel, childId), assetId);
+
+        assertEquals(1, attempts.get());
+        assertTrue(updated.getPromoted());
+        assertEquals(assetId, assetRepository.findById(childId).orElseThrow().getParentId());
+    }
+
+    private UUID saveRoot() {
+        return assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+    }
+
+    private void whenChildIsLinked(UUID childId, Runnable action) {
+        doAnswer(invocation -> {
+            action.run();
+            return null;
+        }).when(assetHierarchyIndexService).assetSaved(argThat(assetEntity -> assetEntity != null && childId.equals(assetEntity.getId())));
+    }
+
+    /**
+     * Commits a move of the asset on another thread, as another request would.
+     */
+    private void moveConcurrently(UUID assetId, UUID parentId) {
+        CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            AssetEntity assetEntity = assetRepository.findById(assetId).orElseThrow();
+            assetEntity.setParentId(parentId);
+            assetRepositoryService.saveAsset(assetEntity);
+        })).join();
+    }
+
+    private AssetListModel assetList(AssetModel assetModel, UUID childId) {
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetModel);
+        assetListModel.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(assetRepository.findById(childId).orElseThrow()));
+        return assetListModel;
+    }
+}
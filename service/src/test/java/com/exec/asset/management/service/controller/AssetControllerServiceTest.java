@@ -1,44 +1,86 @@
 package com.exec.asset.management.service.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.exec.asset.management.api.model.AssetListModel;
 import com.exec.asset.management.api.model.AssetModel;
+import com.exec.asset.management.config.PromotionProperties;
 import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.export.AssetExportFormat;
 import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.exception.AssetDoesNotExistException;
+import com.exec.asset.management.exception.AssetHierarchyCycleException;
 import com.exec.asset.management.exception.ParentAssetRequiredException;
 import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
 import com.exec.asset.management.repository.AssetRepository;
 import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.promotion.AssetPromotionService;
+import com.exec.asset.management.service.promotion.ParallelAssetPromotionService;
+import com.exec.asset.management.service.promotion.PromotionJobService;
 import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+import com.exec.asset.management.util.JsonUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
-@DataJpaTest
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
 public class AssetControllerServiceTest {
     @Autowired
     private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager entityManager;
     private AssetPublisherService assetPublisherService;
+    private PromotionJobService promotionJobService;
     private AssetControllerService assetControllerService;
+    private AssetRepositoryService assetRepositoryService;
     private final AssetMapper assetMapper = new AssetMapper();
 
     @BeforeEach
     void init() {
         assetPublisherService = mock(AssetPublisherService.class);
-        assetControllerService = new AssetControllerService(new AssetRepositoryService(assetRepository), new AssetMapper(), assetPublisherService);
+        promotionJobService = mock(PromotionJobService.class);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository);
+        AssetPromotionService assetPromotionService = new AssetPromotionService(assetRepositoryService, assetMapper, assetPublisherService,
+                new PromotionProperties(), mock(ParallelAssetPromotionService.class), promotionJobService);
+        assetControllerService = new AssetControllerService(assetRepositoryService, assetMapper, assetPromotionService, transactionManager);
     }
 
     @Test
@@ -57,11 +99,11 @@ public class AssetControllerServiceTest {
 
     @Test
     public void updateAssetListWithChildren() {
-        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.save(AssetEntity.builder().promoted(false).build()));
-        AssetEntity secondLevelAsset = assetRepository.save(AssetEntity.builder().promoted(false).parentId(assetModel.getId()).build());
-        AssetEntity secondLevelAsset2 = assetRepository.save(AssetEntity.builder().promoted(false).build());
-        assetRepository.save(AssetEntity.builder().promoted(false).parentId(secondLevelAsset2.getId()).build());
-        assetRepository.save(AssetEntity.builder().promoted(false).parentId(secondLevelAsset.getId()).build());
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
+        AssetEntity secondLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(assetModel.getId()).build());
+        AssetEntity secondLevelAsset2 = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(secondLevelAsset2.getId()).build());
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(secondLevelAsset.getId()).build());
         assetModel.setPromoted(true);
 
         AssetListModel assetListModel = new AssetListModel();
@@ -71,7 +113,7 @@ public class AssetControllerServiceTest {
 
         var response = assetControllerService.updateAssetList(assetListModel, assetModel.getId());
 
-        verify(assetPublisherService, Mockito.times(5)).publishAssetPromotedEvent(any(AssetPromotionEventModel.class));
+        assertEquals(5, publishedPromotionEvents().size());
         assertTrue(response.getPromoted());
         assertTrue(assetRepository.getById(assetModel.getId()).getPromoted());
         assertTrue(assetRepository.findByParentId(assetModel.getId()).stream().allMatch(entity -> entity.getPromoted()));
@@ -82,25 +124,69 @@ public class AssetControllerServiceTest {
     }
 
     @Test
-    public void updateAssetListWithCircularDependency() {
-        AssetEntity topLevelAsset = assetRepository.save(AssetEntity.builder().promoted(false).build());
-        AssetEntity secondLevelAsset = assetRepository.save(AssetEntity.builder().promoted(false).parentId(topLevelAsset.getId()).build());
-        assetRepository.save(AssetEntity.builder().promoted(false).parentId(secondLevelAsset.getId()).build());
+    public void updateAssetListRejectsCircularDependency() {
+        AssetEntity topLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        AssetEntity secondLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(topLevelAsset.getId()).build());
+        AssetEntity thirdLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(secondLevelAsset.getId()).build());
 
-        topLevelAsset.setParentId(secondLevelAsset.getId());
-        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepository.save(topLevelAsset));
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(topLevelAsset);
         assetModel.setPromoted(true);
+        assetModel.setParentId(thirdLevelAsset.getId());
 
         AssetListModel assetListModel = new AssetListModel();
         assetListModel.setParentAsset(assetModel);
 
-        var response = assetControllerService.updateAssetList(assetListModel, assetModel.getId());
+        assertThrows(AssetHierarchyCycleException.class, () -> assetControllerService.updateAssetList(assetListModel, assetModel.getId()));
+        assertTrue(publishedPromotionEvents().isEmpty());
+    }
 
-        verify(assetPublisherService, Mockito.times(3)).publishAssetPromotedEvent(any(AssetPromotionEventModel.class));
-        assertTrue(response.getPromoted());
-        assertTrue(assetRepository.getById(assetModel.getId()).getPromoted());
-        assertTrue(assetRepository.findByParentId(assetModel.getId()).stream().allMatch(entity -> entity.getPromoted()));
-        assertTrue(assetRepository.findByParentId(secondLevelAsset.getId()).stream().allMatch(entity -> entity.getPromoted()));
+    @Test
+    public void updateAssetListRejectsAncestorAsChild() {
+        AssetEntity topLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        AssetEntity secondLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(topLevelAsset.getId()).build());
+
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetMapper.mapAssetEntityToAssetModel(secondLevelAsset));
+        assetListModel.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(topLevelAsset));
+
+        assertThrows(AssetHierarchyCycleException.class, () -> assetControllerService.updateAssetList(assetListModel, secondLevelAsset.getId()));
+    }
+
+    @Test
+    public void updateAssetListPromotesDeepChain() {
+        AssetEntity topLevelAsset = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        UUID parentId = topLevelAsset.getId();
+        for (int i = 0; i < 200; i++) {
+            parentId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(parentId).build()).getId();
+        }
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(topLevelAsset);
+        assetModel.setPromoted(true);
+
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetModel);
+
+        assetControllerService.updateAssetList(assetListModel, assetModel.getId());
+
+        assertEquals(201, publishedPromotionEvents().size());
+        assertTrue(assetRepository.getById(parentId).getPromoted());
+    }
+
+    @Test
+    public void updateAssetListOnlyPublishesForAssetsThatWereNotPromoted() {
+        AssetModel assetModel = assetMapper.mapAssetEntityToAssetModel(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()));
+        AssetEntity promotedChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).parentId(assetModel.getId()).build());
+        AssetEntity grandChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(promotedChild.getId()).build());
+        assetModel.setPromoted(true);
+
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(assetModel);
+
+        assetControllerService.updateAssetList(assetListModel, assetModel.getId());
+
+        List<AssetPromotionEventModel> publishedPromotionEvents = publishedPromotionEvents();
+        assertEquals(2, publishedPromotionEvents.size());
+        assertTrue(publishedPromotionEvents.stream().noneMatch(event -> promotedChild.getId().equals(event.getAssetId())));
+        assertTrue(assetRepository.getById(grandChild.getId()).getPromoted());
     }
 
     @Test
@@ -127,10 +213,104 @@ public class AssetControllerServiceTest {
         assertEquals(4, assetRepository.findAll().size());
     }
 
+    @Test
+    public void createAssetFromListBatchesStatements() {
+        List<AssetEntity> existingChildren = new ArrayList<>();
+        List<AssetEntity> existingGrandChildren = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            AssetEntity existingChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+            existingChildren.add(existingChild);
+            existingGrandChildren.add(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(existingChild.getId()).build()));
+        }
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(createAssetModel(null));
+        for (int i = 0; i < 200; i++) {
+            assetListModel.addChildAssetsItem(createAssetModel(null));
+        }
+        existingChildren.forEach(existingChild -> assetListModel.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(existingChild)));
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var response = assetControllerService.createAssetFromList(assetListModel);
+        entityManager.flush();
+
+        // One statement per child would be over 600 statements, moving each existing child on its own another 300.
+        assertTrue(statistics.getPrepareStatementCount() < 50, "Prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(300, response.getChildAssets().size());
+        UUID parentId = response.getParentAsset().getId();
+        assertEquals(401, assetRepositoryService.getDescendantIds(parentId, Integer.MAX_VALUE).size());
+        assertEquals(List.of(parentId), assetRepositoryService.getAncestorIds(response.getChildAssets().get(0).getId()));
+        assertEquals(parentId, assetRepository.getById(existingChildren.get(0).getId()).getParentId());
+        // The subtrees of the existing children moved along with them.
+        assertEquals(List.of(existingChildren.get(99).getId(), parentId), assetRepositoryService.getAncestorIds(existingGrandChildren.get(99).getId()));
+    }
+
+    @Test
+    public void createAssetFromListMovesNestedExistingChildrenOneByOne() {
+        AssetEntity existingChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        AssetEntity nestedExistingChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(existingChild.getId()).build());
+        AssetEntity grandChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(nestedExistingChild.getId()).build());
+        AssetListModel assetListModel = new AssetListModel();
+        assetListModel.setParentAsset(createAssetModel(null));
+        assetListModel.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(existingChild));
+        assetListModel.addChildAssetsItem(assetMapper.mapAssetEntityToAssetModel(nestedExistingChild));
+
+        UUID parentId = assetControllerService.createAssetFromList(assetListModel).getParentAsset().getId();
+
+        assertEquals(List.of(parentId), assetRepositoryService.getAncestorIds(existingChild.getId()));
+        assertEquals(List.of(parentId), assetRepositoryService.getAncestorIds(nestedExistingChild.getId()));
+        assertEquals(List.of(nestedExistingChild.getId(), parentId), assetRepositoryService.getAncestorIds(grandChild.getId()));
+        assertEquals(List.of(existingChild.getId()), assetRepositoryService.getDescendantIds(existingChild.getId(), Integer.MAX_VALUE));
+    }
+
     private AssetModel createAssetModel(UUID parentId) {
         AssetModel assetModel = new AssetModel();
         assetModel.setPromoted(false);
         assetModel.setParentId(parentId);
         return assetModel;
     }
+
+    @Test
+    public void getDescendantsStreamsNestedAssetsNearestFirst() throws IOException {
+        AssetEntity root = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        AssetEntity child = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(root.getId()).build());
+        AssetEntity grandChild = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).parentId(child.getId()).build());
+
+        assertEquals(List.of(child.getId(), grandChild.getId()), readDescendantIds(assetControllerService.getDescendants(root.getId(), null)));
+        assertEquals(List.of(child.getId()), readDescendantIds(assetControllerService.getDescendants(root.getId(), 1)));
+        assertTrue(readDescendantIds(assetControllerService.getDescendants(grandChild.getId(), null)).isEmpty());
+        assertThrows(AssetDoesNotExistException.class, () -> assetControllerService.getDescendants(UUID.randomUUID(), null));
+    }
+
+    @Test
+    public void exportAssetsStreamsEveryAsset() throws IOException {
+        AssetEntity root = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        AssetEntity child = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).parentId(root.getId()).build());
+
+        assertEquals(Set.of(root.getId(), child.getId()), Set.copyOf(readDescendantIds(assetControllerService.exportAssets(AssetExportFormat.NDJSON))));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(assetControllerService.exportAssets(AssetExportFormat.CSV).getInputStream(),
+                StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().collect(Collectors.toList());
+            assertEquals("id,promoted,parentId", lines.get(0));
+            assertEquals(Set.of(root.getId() + ",false,", child.getId() + ",true," + root.getId()), Set.copyOf(lines.subList(1, lines.size())));
+        }
+    }
+
+    private List<UUID> readDescendantIds(Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<UUID> ids = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                ids.add(JsonUtils.objectMapper().readValue(line, AssetModel.class).getId());
+            }
+            return ids;
+        }
+    }
+
+    private List<AssetPromotionEventModel> publishedPromotionEvents() {
+        ArgumentCaptor<List<AssetPromotionEventModel>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(assetPublisherService, Mockito.atLeast(0)).publishAssetsPromotedEvents(any(UUID.class), argumentCaptor.capture());
+        return argumentCaptor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
 }
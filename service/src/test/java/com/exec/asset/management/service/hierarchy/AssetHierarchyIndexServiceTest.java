@@ -0,0 +1,106 @@
+package com.exec.asset.management.service.hierarchy;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.config.HierarchyIndexProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.hierarchy.AssetNode;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes reach the index when their transaction commits, so the test data has to be committed instead of living in
+ * the usual rolled back test transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AssetHierarchyIndexServiceTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private AssetHierarchyIndexService assetHierarchyIndexService;
+    private AssetRepositoryService assetRepositoryService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void init() {
+        HierarchyIndexProperties hierarchyIndexProperties = new HierarchyIndexProperties();
+        hierarchyIndexProperties.setEnabled(true);
+        assetHierarchyIndexService = new AssetHierarchyIndexService(hierarchyIndexProperties, assetRepository, new MultiTenantIdentifierResolver(), transactionManager);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        assertTrue(assetHierarchyIndexService.build(new MultiTenantIdentifierResolver().resolveCurrentTenantIdentifier()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assetHierarchyIndexService.shutdown();
+        assetClosureRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    public void indexFollowsCommittedWrites() {
+        UUID rootId = save(null);
+        UUID childId = save(rootId);
+        UUID grandChildId = save(childId);
+        transactionTemplate.executeWithoutResult(status -> assetRepositoryService.promoteAssets(List.of(childId)));
+
+        AssetHierarchyIndex index = assetHierarchyIndexService.getIndex().orElseThrow();
+        assertEquals(List.of(rootId, childId, grandChildId), index.getDescendantIds(rootId, Integer.MAX_VALUE));
+        assertEquals(List.of(rootId, grandChildId), unpromotedIds(index, rootId));
+
+        transactionTemplate.executeWithoutResult(status -> assetRepositoryService.deleteAsset(childId));
+
+        assertEquals(List.of(rootId), index.getAncestorIds(grandChildId));
+    }
+
+    @Test
+    public void uncommittedWritesStayWithTheirTransaction() {
+        UUID rootId = save(null);
+        UUID childId = save(rootId);
+        AssetHierarchyIndex index = assetHierarchyIndexService.getIndex().orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assetRepositoryService.promoteAssets(List.of(rootId, childId));
+
+            // The writing transaction reads its own writes from the database, others still see every asset unpromoted.
+            assertTrue(assetHierarchyIndexService.getIndex().isEmpty());
+            assertEquals(List.of(rootId, childId), CompletableFuture.supplyAsync(() -> unpromotedIds(assetHierarchyIndexService.getIndex().orElseThrow(), rootId)).join());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(index, assetHierarchyIndexService.getIndex().orElseThrow());
+        assertEquals(List.of(rootId, childId), unpromotedIds(index, rootId));
+    }
+
+    private UUID save(UUID parentId) {
+        return transactionTemplate.execute(status -> assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(parentId).build()).getId());
+    }
+
+    private static List<UUID> unpromotedIds(AssetHierarchyIndex index, UUID rootId) {
+        return index.getUnpromotedSubtree(rootId, Integer.MAX_VALUE).stream().map(AssetNode::getId).collect(Collectors.toList());
+    }
+}
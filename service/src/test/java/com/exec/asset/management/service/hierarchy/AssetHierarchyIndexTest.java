@@ -0,0 +1,118 @@
+package com.exec.asset.management.service.hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.exec.asset.management.domain.hierarchy.AssetNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetHierarchyIndexTest {
+
+    @Test
+    public void putLinksChildrenToParents() {
+        AssetHierarchyIndex index = new AssetHierarchyIndex(0);
+        UUID rootId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        UUID grandChildId = UUID.randomUUID();
+
+        index.put(rootId, null, false);
+        index.put(childId, rootId, true);
+        index.put(grandChildId, childId, false);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(childId), index.getChildIds(rootId));
+        assertEquals(List.of(rootId, childId, grandChildId), index.getDescendantIds(rootId, Integer.MAX_VALUE));
+        assertEquals(List.of(rootId, childId), index.getDescendantIds(rootId, 1));
+        assertEquals(List.of(childId, rootId), index.getAncestorIds(grandChildId));
+        assertEquals(List.of(rootId, grandChildId), index.getUnpromotedSubtree(rootId, Integer.MAX_VALUE).stream().map(AssetNode::getId).collect(Collectors.toList()));
+        assertNull(index.getUnpromotedSubtree(rootId, 0).get(0).getParentId());
+    }
+
+    @Test
+    public void putWithNewParentMovesSubtree() {
+        AssetHierarchyIndex index = new AssetHierarchyIndex(0);
+        UUID firstRootId = UUID.randomUUID();
+        UUID secondRootId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        UUID grandChildId = UUID.randomUUID();
+        index.put(firstRootId, null, false);
+        index.put(secondRootId, null, false);
+        index.put(childId, firstRootId, false);
+        index.put(grandChildId, childId, false);
+
+        index.put(childId, secondRootId, false);
+
+        assertEquals(List.of(firstRootId), index.getDescendantIds(firstRootId, Integer.MAX_VALUE));
+        assertEquals(List.of(secondRootId, childId, grandChildId), index.getDescendantIds(secondRootId, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void removeLinksChildrenToGrandParent() {
+        AssetHierarchyIndex index = new AssetHierarchyIndex(0);
+        UUID rootId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        UUID firstGrandChildId = UUID.randomUUID();
+        UUID secondGrandChildId = UUID.randomUUID();
+        index.put(rootId, null, false);
+        index.put(childId, rootId, false);
+        index.put(firstGrandChildId, childId, false);
+        index.put(secondGrandChildId, childId, false);
+
+        index.remove(childId);
+
+        assertFalse(index.contains(childId));
+        assertEquals(3, index.size());
+        assertEquals(Set.of(firstGrandChildId, secondGrandChildId), Set.copyOf(index.getChildIds(rootId)));
+        assertEquals(List.of(rootId), index.getAncestorIds(firstGrandChildId));
+    }
+
+    @Test
+    public void childrenOfUnknownParentAreKept() {
+        AssetHierarchyIndex index = new AssetHierarchyIndex(0);
+        UUID missingParentId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+
+        index.put(childId, missingParentId, false);
+
+        assertFalse(index.contains(missingParentId));
+        assertEquals(List.of(childId), index.getChildIds(missingParentId));
+        assertTrue(index.getAncestorIds(childId).isEmpty());
+
+        index.put(childId, null, false);
+
+        assertTrue(index.getChildIds(missingParentId).isEmpty());
+    }
+
+    @Test
+    public void indexSurvivesGrowthAndRemovals() {
+        AssetHierarchyIndex index = new AssetHierarchyIndex(0);
+        UUID rootId = UUID.randomUUID();
+        index.put(rootId, null, false);
+        List<UUID> ids = new ArrayList<>();
+        UUID parentId = rootId;
+        for (int i = 0; i < 10000; i++) {
+            UUID id = UUID.randomUUID();
+            index.put(id, i % 10 == 0 ? rootId : parentId, false);
+            ids.add(id);
+            parentId = id;
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            index.remove(ids.get(i));
+        }
+
+        assertEquals(5001, index.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i % 2 == 1, index.contains(ids.get(i)));
+        }
+        assertEquals(5001, index.getDescendantIds(rootId, Integer.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.exec.asset.management.service.ingest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.api.model.AssetImportChunkModel;
+import com.exec.asset.management.api.model.AssetImportSummaryModel;
+import com.exec.asset.management.config.ImportProperties;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every chunk commits in a transaction of its own, so the test data is committed and cleaned up afterwards.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AssetImportServiceTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private AssetRepositoryService assetRepositoryService;
+    private AssetImportService assetImportService;
+
+    @BeforeEach
+    void init() {
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository);
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setChunkSize(2);
+        assetImportService = new AssetImportService(assetRepositoryService, new AssetMapper(), importProperties, transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assetClosureRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    public void importAssetsCommitsChunksAndLinksHierarchy() {
+        UUID rootId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        UUID grandChildId = UUID.randomUUID();
+        String records = record(rootId, null) + record(childId, rootId) + record(grandChildId, childId) + "{\"promoted\":true,\"parentId\":\"" + rootId + "\"}\n";
+
+        AssetImportSummaryModel summary = assetImportService.importAssets(new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4L, summary.getImportedCount());
+        assertEquals(2, summary.getChunks().size());
+        assertEquals(3L, summary.getChunks().get(1).getFirstRecord());
+        assertTrue(summary.getChunks().stream().allMatch(chunk -> chunk.getStatus() == AssetImportChunkModel.StatusEnum.IMPORTED));
+        assertEquals(4, assetRepository.count());
+        assertEquals(List.of(childId, rootId), assetRepositoryService.getAncestorIds(grandChildId));
+        assertEquals(4, assetRepositoryService.getDescendantIds(rootId, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void importAssetsStopsAtFirstFailedChunk() {
+        UUID rootId = UUID.randomUUID();
+        String records = record(rootId, null) + record(UUID.randomUUID(), rootId)
+                + record(UUID.randomUUID(), UUID.randomUUID()) + record(UUID.randomUUID(), rootId)
+                + record(UUID.randomUUID(), rootId);
+
+        AssetImportSummaryModel summary = assetImportService.importAssets(new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2L, summary.getImportedCount());
+        assertEquals(2, summary.getChunks().size());
+        assertEquals(AssetImportChunkModel.StatusEnum.FAILED, summary.getChunks().get(1).getStatus());
+        assertEquals(2, assetRepository.count());
+        assertEquals(3, assetClosureRepository.count());
+    }
+
+    @Test
+    public void importAssetsReportsAnUnreadableStreamAsAFailedChunk() {
+        InputStream brokenStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        AssetImportSummaryModel summary = assetImportService.importAssets(brokenStream);
+
+        assertEquals(0L, summary.getImportedCount());
+        assertEquals(1, summary.getChunks().size());
+        assertEquals(AssetImportChunkModel.StatusEnum.FAILED, summary.getChunks().get(0).getStatus());
+        assertEquals(1L, summary.getChunks().get(0).getFirstRecord());
+        assertTrue(summary.getChunks().get(0).getError().contains("connection reset"));
+    }
+
+    private String record(UUID id, UUID parentId) {
+        return parentId == null
+                ? String.format("{\"id\":\"%s\",\"promoted\":false}\n", id)
+                : String.format("{\"id\":\"%s\",\"promoted\":false,\"parentId\":\"%s\"}\n", id, parentId);
+    }
+}
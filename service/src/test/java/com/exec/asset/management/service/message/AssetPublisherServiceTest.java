@@ -1,44 +1,67 @@
 package com.exec.asset.management.service.message;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.Message;
 
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.entities.OutboxEventEntity;
 import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.domain.messages.AssetsPromotedEventModel;
 import com.exec.asset.management.event.config.BaseKafkaConfiguration;
 import com.exec.asset.management.event.publisher.KafkaMessagingSystemService;
+import com.exec.asset.management.mapper.OutboxEventMapper;
+import com.exec.asset.management.repository.OutboxEventRepository;
+import com.exec.asset.management.util.JsonUtils;
 import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AssetPublisherServiceTest {
-    private KafkaTemplate kafkaTemplate;
+    private BaseKafkaConfiguration kafkaConfiguration;
+    private OutboxEventRepository outboxEventRepository;
+    private OutboxRelay outboxRelay;
+    private PromotionProperties promotionProperties;
     private AssetPublisherService assetPublisherService;
 
     @BeforeEach
     void init() {
-        kafkaTemplate = mock(KafkaTemplate.class);
-
-        BaseKafkaConfiguration kafkaConfiguration = mock(BaseKafkaConfiguration.class);
-        when(kafkaConfiguration.kafkaTemplate()).thenReturn(kafkaTemplate);
+        kafkaConfiguration = mock(BaseKafkaConfiguration.class);
+        BaseKafkaConfiguration.Kafka kafkaProperties = new BaseKafkaConfiguration.Kafka();
+        kafkaProperties.setKafka(new Properties());
+        when(kafkaConfiguration.kafkaProperties()).thenReturn(kafkaProperties);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        outboxRelay = mock(OutboxRelay.class);
 
-        KafkaMessagingSystemService kafkaMessagingSystemService = new KafkaMessagingSystemService(kafkaConfiguration, new MultiTenantIdentifierResolver());
-        assetPublisherService = new AssetPublisherService(kafkaMessagingSystemService);
+        KafkaMessagingSystemService kafkaMessagingSystemService = new KafkaMessagingSystemService(kafkaConfiguration, new MultiTenantIdentifierResolver(), UuidStrategy.TIME_ORDERED,
+                new SimpleMeterRegistry());
+        promotionProperties = new PromotionProperties();
+        assetPublisherService = new AssetPublisherService(kafkaMessagingSystemService, outboxEventRepository, new OutboxEventMapper(), outboxRelay, promotionProperties);
     }
 
     @Test
-    public void publishAssetPromotedEventValidEvent() {
+    public void publishAssetPromotedEventWritesToTheOutbox() {
         UUID parentId = UUID.randomUUID();
         UUID assetId = UUID.randomUUID();
-        ArgumentCaptor<Message<String>> argumentCaptor = ArgumentCaptor.forClass(Message.class);
+        ArgumentCaptor<OutboxEventEntity> argumentCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
 
         assetPublisherService.publishAssetPromotedEvent(AssetPromotionEventModel.builder()
                 .parentId(parentId)
@@ -46,14 +69,56 @@ public class AssetPublisherServiceTest {
                 .promoted(true)
                 .build());
 
-        verify(kafkaTemplate).send(argumentCaptor.capture());
-        Message<String> capturedArgument = argumentCaptor.getValue();
+        verify(outboxEventRepository).save(argumentCaptor.capture());
+        verify(outboxRelay).wakeUpAfterCommit();
+        verify(kafkaConfiguration, never()).kafkaTemplateForTopic(any());
+        OutboxEventEntity capturedArgument = argumentCaptor.getValue();
+
+        assertNotNull(capturedArgument.getId());
+        assertNotNull(capturedArgument.getCreatedAt());
+        assertEquals(AssetPromotionEventModel.TOPIC_NAME, capturedArgument.getTopic());
+        assertEquals(assetId.toString(), capturedArgument.getAssetId());
+        assertEquals(parentId.toString(), capturedArgument.getParentId());
+        assertTrue(new String(capturedArgument.getPayload(), StandardCharsets.UTF_8).contains(parentId.toString()));
+        assertTrue(new String(capturedArgument.getPayload(), StandardCharsets.UTF_8).contains(assetId.toString()));
+        assertEquals(AssetPromotionEventModel.MEDIA_TYPE + "+json", capturedArgument.getContentType());
+    }
+
+    @Test
+    public void batchedPromotionEventsCarryChunksOfAssets() throws Exception {
+        promotionProperties.setEventFormat(PromotionProperties.EventFormat.BATCHED);
+        promotionProperties.setEventBatchSize(2);
+        UUID rootId = UUID.randomUUID();
+        List<AssetPromotionEventModel> promotedAssets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            promotedAssets.add(AssetPromotionEventModel.builder().assetId(UUID.randomUUID()).parentId(rootId).promoted(true).build());
+        }
+        ArgumentCaptor<OutboxEventEntity> argumentCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+
+        assetPublisherService.publishAssetsPromotedEvents(rootId, promotedAssets);
+
+        verify(outboxEventRepository, times(3)).save(argumentCaptor.capture());
+        List<UUID> publishedIds = new ArrayList<>();
+        for (OutboxEventEntity capturedArgument : argumentCaptor.getAllValues()) {
+            assertEquals(AssetsPromotedEventModel.MEDIA_TYPE + "+json", capturedArgument.getContentType());
+            assertEquals(AssetsPromotedEventModel.CREATED_EVENT_NAME, capturedArgument.getEventName());
+            assertEquals(rootId.toString(), capturedArgument.getPartitionKey());
+            AssetsPromotedEventModel event = JsonUtils.objectMapper().readValue(capturedArgument.getPayload(), AssetsPromotedEventModel.class);
+            assertEquals(rootId, event.getRootId());
+            event.getAssets().forEach(asset -> publishedIds.add(asset.getAssetId()));
+        }
+        assertEquals(promotedAssets.stream().map(AssetPromotionEventModel::getAssetId).collect(Collectors.toList()), publishedIds);
+    }
+
+    @Test
+    public void bothPromotionEventFormatsCanBePublished() {
+        promotionProperties.setEventFormat(PromotionProperties.EventFormat.BOTH);
+        UUID rootId = UUID.randomUUID();
+
+        assetPublisherService.publishAssetsPromotedEvents(rootId, List.of(
+                AssetPromotionEventModel.builder().assetId(UUID.randomUUID()).parentId(rootId).promoted(true).build(),
+                AssetPromotionEventModel.builder().assetId(UUID.randomUUID()).parentId(rootId).promoted(true).build()));
 
-        assertTrue(capturedArgument.getHeaders().containsKey("assetId"));
-        assertEquals(assetId.toString(), capturedArgument.getHeaders().get("assetId"));
-        assertTrue(capturedArgument.getHeaders().containsKey("parentAssetId"));
-        assertEquals(parentId.toString(), capturedArgument.getHeaders().get("parentAssetId"));
-        assertTrue(capturedArgument.getPayload().contains(parentId.toString()));
-        assertTrue(capturedArgument.getPayload().contains(assetId.toString()));
+        verify(outboxEventRepository, times(3)).save(any(OutboxEventEntity.class));
     }
 }
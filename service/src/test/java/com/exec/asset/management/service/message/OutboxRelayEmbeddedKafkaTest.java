@@ -0,0 +1,179 @@
+package com.exec.asset.management.service.message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.config.OutboxProperties;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.event.config.BaseKafkaConfiguration;
+import com.exec.asset.management.event.publisher.KafkaMessagingSystemService;
+import com.exec.asset.management.mapper.OutboxEventMapper;
+import com.exec.asset.management.repository.OutboxEventRepository;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relays events to an embedded broker. A relay that dies between sending a batch and deleting it is simulated by a
+ * repository that fails the delete, after which a new relay takes over the outbox as a restarted instance would.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EmbeddedKafka(partitions = 1, topics = AssetPromotionEventModel.TOPIC_NAME)
+public class OutboxRelayEmbeddedKafkaTest {
+    private static final Duration RECEIVE_TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private OutboxProperties outboxProperties;
+    private KafkaMessagingSystemService kafkaMessagingSystemService;
+    private AssetPublisherService assetPublisherService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void init() {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(embeddedKafka);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerFactory = new DefaultKafkaProducerFactory<>(producerProps);
+        BaseKafkaConfiguration kafkaConfiguration = mock(BaseKafkaConfiguration.class);
+        when(kafkaConfiguration.kafkaTemplateForTopic(AssetPromotionEventModel.TOPIC_NAME)).thenReturn(new KafkaTemplate<>(producerFactory));
+        BaseKafkaConfiguration.Kafka kafkaProperties = new BaseKafkaConfiguration.Kafka();
+        kafkaProperties.setKafka(new Properties());
+        when(kafkaConfiguration.kafkaProperties()).thenReturn(kafkaProperties);
+
+        outboxProperties = new OutboxProperties();
+        outboxProperties.setBatchSize(10);
+        kafkaMessagingSystemService = new KafkaMessagingSystemService(kafkaConfiguration, new MultiTenantIdentifierResolver(), UuidStrategy.TIME_ORDERED,
+                new SimpleMeterRegistry());
+        OutboxRelay outboxRelay = new OutboxRelay(outboxProperties, outboxEventRepository, new OutboxEventMapper(), kafkaMessagingSystemService,
+                transactionManager);
+        assetPublisherService = new AssetPublisherService(kafkaMessagingSystemService, outboxEventRepository, new OutboxEventMapper(), outboxRelay,
+                new PromotionProperties());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        producerFactory.destroy();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    public void everyCommittedEventArrivesWhenTheRelayDiesBetweenSendAndDelete() {
+        List<String> committedAssetIds = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            committedAssetIds.add(publishAssetPromotedEvent(false));
+        }
+        String rolledBackAssetId = publishAssetPromotedEvent(true);
+
+        OutboxEventRepository dyingRepository = mock(OutboxEventRepository.class);
+        when(dyingRepository.findOldest(any())).thenAnswer(invocation -> outboxEventRepository.findOldest(invocation.getArgument(0)));
+        when(dyingRepository.deleteByIds(any())).thenThrow(new IllegalStateException("relay killed"));
+        OutboxRelay dyingRelay = new OutboxRelay(outboxProperties, dyingRepository, new OutboxEventMapper(), kafkaMessagingSystemService, transactionManager);
+        assertThrows(IllegalStateException.class, dyingRelay::relayBatch);
+        assertEquals(25, outboxEventRepository.count());
+
+        OutboxRelay restartedRelay = new OutboxRelay(outboxProperties, outboxEventRepository, new OutboxEventMapper(), kafkaMessagingSystemService,
+                transactionManager);
+        int relayed = 0;
+        int batch;
+        while ((batch = restartedRelay.relayBatch()) > 0) {
+            relayed += batch;
+        }
+        assertEquals(25, relayed);
+        assertEquals(0, outboxEventRepository.count());
+
+        // The batch sent by the dying relay arrives twice, each copy with the event id consumers drop copies by.
+        List<ConsumerRecord<String, byte[]>> records = receive(35);
+        List<String> receivedAssetIds = new ArrayList<>();
+        Set<String> eventIds = new HashSet<>();
+        for (ConsumerRecord<String, byte[]> consumerRecord : records) {
+            receivedAssetIds.add(header(consumerRecord, "assetId"));
+            eventIds.add(header(consumerRecord, "eventId"));
+        }
+        assertEquals(35, receivedAssetIds.size());
+        assertEquals(25, eventIds.size());
+        assertEquals(new HashSet<>(committedAssetIds), new HashSet<>(receivedAssetIds));
+        assertFalse(receivedAssetIds.contains(rolledBackAssetId));
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    private List<ConsumerRecord<String, byte[]>> receive(int expected) {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-relay-test", "false", embeddedKafka);
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new ByteArrayDeserializer())
+                .createConsumer()) {
+            embeddedKafka.consumeFromAnEmbeddedTopic(consumer, AssetPromotionEventModel.TOPIC_NAME);
+            long deadline = System.nanoTime() + RECEIVE_TIMEOUT.toNanos();
+            while (records.size() < expected && System.nanoTime() < deadline) {
+                consumer.poll(Duration.ofMillis(500)).forEach(records::add);
+            }
+        }
+        return records;
+    }
+
+    private static String header(ConsumerRecord<String, byte[]> consumerRecord, String name) {
+        return new String(consumerRecord.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    private String publishAssetPromotedEvent(boolean rollback) {
+        UUID assetId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            assetPublisherService.publishAssetPromotedEvent(AssetPromotionEventModel.builder()
+                    .parentId(UUID.randomUUID())
+                    .assetId(assetId)
+                    .promoted(true)
+                    .build());
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+        return assetId.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.exec.asset.management.service.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.exec.asset.management.config.OutboxProperties;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.event.config.BaseKafkaConfiguration;
+import com.exec.asset.management.event.publisher.KafkaMessagingSystemService;
+import com.exec.asset.management.mapper.OutboxEventMapper;
+import com.exec.asset.management.repository.OutboxEventRepository;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+import com.exec.asset.management.util.uuid.UuidStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The relay reads and deletes events in transactions of its own, so the test data has to be committed instead of
+ * living in the usual rolled back test transaction. The broker is a mock that acknowledges every event except those
+ * of the assets in {@code unavailableAssetIds}.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OutboxRelayTest {
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private final List<String> sentAssetIds = new ArrayList<>();
+    private final Set<String> unavailableAssetIds = new HashSet<>();
+    private OutboxProperties outboxProperties;
+    private KafkaMessagingSystemService kafkaMessagingSystemService;
+    private OutboxRelay outboxRelay;
+    private AssetPublisherService assetPublisherService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void init() {
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> producerRecord = invocation.getArgument(0);
+            String assetId = new String(producerRecord.headers().lastHeader("assetId").value(), StandardCharsets.UTF_8);
+            SettableListenableFuture<SendResult<String, byte[]>> acknowledgement = new SettableListenableFuture<>();
+            if (unavailableAssetIds.contains(assetId)) {
+                acknowledgement.setException(new IllegalStateException("partition unavailable"));
+            }
+            else {
+                sentAssetIds.add(assetId);
+                acknowledgement.set(null);
+            }
+            return acknowledgement;
+        });
+        BaseKafkaConfiguration kafkaConfiguration = mock(BaseKafkaConfiguration.class);
+        when(kafkaConfiguration.kafkaTemplateForTopic(AssetPromotionEventModel.TOPIC_NAME)).thenReturn(kafkaTemplate);
+        BaseKafkaConfiguration.Kafka kafkaProperties = new BaseKafkaConfiguration.Kafka();
+        kafkaProperties.setKafka(new Properties());
+        when(kafkaConfiguration.kafkaProperties()).thenReturn(kafkaProperties);
+
+        outboxProperties = new OutboxProperties();
+        outboxProperties.setBatchSize(10);
+        kafkaMessagingSystemService = new KafkaMessagingSystemService(kafkaConfiguration, new MultiTenantIdentifierResolver(), UuidStrategy.TIME_ORDERED,
+                new SimpleMeterRegistry());
+        outboxRelay = new OutboxRelay(outboxProperties, outboxEventRepository, new OutboxEventMapper(), kafkaMessagingSystemService, transactionManager);
+        assetPublisherService = new AssetPublisherService(kafkaMessagingSystemService, outboxEventRepository, new OutboxEventMapper(), outboxRelay,
+                new PromotionProperties());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    public void committedEventsAreRelayedAndRolledBackEventsAreNot() {
+        List<String> committedAssetIds = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            committedAssetIds.add(publishAssetPromotedEvent(false));
+        }
+        String rolledBackAssetId = publishAssetPromotedEvent(true);
+        assertEquals(25, outboxEventRepository.count());
+
+        assertEquals(10, outboxRelay.relayBatch());
+        assertEquals(10, outboxRelay.relayBatch());
+        assertEquals(5, outboxRelay.relayBatch());
+        assertEquals(0, outboxRelay.relayBatch());
+
+        // Events written in the same millisecond may be relayed in any order.
+        assertEquals(25, sentAssetIds.size());
+        assertEquals(new HashSet<>(committedAssetIds), new HashSet<>(sentAssetIds));
+        assertFalse(sentAssetIds.contains(rolledBackAssetId));
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    public void unacknowledgedEventsStayInTheOutbox() {
+        String acknowledgedAssetId = publishAssetPromotedEvent(false);
+        String unacknowledgedAssetId = publishAssetPromotedEvent(false);
+        unavailableAssetIds.add(unacknowledgedAssetId);
+
+        assertEquals(1, outboxRelay.relayBatch());
+        assertEquals(1, outboxEventRepository.count());
+
+        unavailableAssetIds.clear();
+        assertEquals(1, outboxRelay.relayBatch());
+        assertEquals(List.of(acknowledgedAssetId, unacknowledgedAssetId), sentAssetIds);
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    public void eventsAfterAnUnacknowledgedEventStayInTheOutbox() {
+        String unacknowledgedAssetId = publishAssetPromotedEvent(false);
+        String acknowledgedAssetId = publishAssetPromotedEvent(false);
+        unavailableAssetIds.add(unacknowledgedAssetId);
+
+        assertEquals(0, outboxRelay.relayBatch());
+        assertEquals(2, outboxEventRepository.count());
+
+        unavailableAssetIds.clear();
+        assertEquals(2, outboxRelay.relayBatch());
+        // The acknowledged event is sent again after the retried one, so its last copy arrives after its predecessor.
+        assertEquals(List.of(acknowledgedAssetId, unacknowledgedAssetId, acknowledgedAssetId), sentAssetIds);
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    public void eventsOfAFailedRelayAreSentAgain() {
+        String assetId = publishAssetPromotedEvent(false);
+        OutboxEventRepository failingRepository = mock(OutboxEventRepository.class);
+        when(failingRepository.findOldest(any())).thenAnswer(invocation -> outboxEventRepository.findOldest(invocation.getArgument(0)));
+        when(failingRepository.deleteByIds(any())).thenThrow(new IllegalStateException("database down"));
+        OutboxRelay failingRelay = new OutboxRelay(outboxProperties, failingRepository, new OutboxEventMapper(), kafkaMessagingSystemService, transactionManager);
+
+        assertThrows(IllegalStateException.class, failingRelay::relayBatch);
+        assertEquals(1, outboxEventRepository.count());
+
+        assertEquals(1, outboxRelay.relayBatch());
+        assertEquals(List.of(assetId, assetId), sentAssetIds);
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    private String publishAssetPromotedEvent(boolean rollback) {
+        UUID assetId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            assetPublisherService.publishAssetPromotedEvent(AssetPromotionEventModel.builder()
+                    .parentId(UUID.randomUUID())
+                    .assetId(assetId)
+                    .promoted(true)
+                    .build());
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+        return assetId.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.exec.asset.management.service.promotion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.messages.AssetPromotionEventModel;
+import com.exec.asset.management.exception.NestedAssetPromotionFailedException;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+import com.exec.asset.management.util.TransactionUtils;
+import com.exec.asset.management.util.uuid.UniqueIdentifierOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Workers promote in their own transactions, so the test data has to be committed instead of living in the
+ * usual rolled back test transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ParallelAssetPromotionServiceTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private AssetRepositoryService assetRepositoryService;
+    private AssetPublisherService assetPublisherService;
+    private ParallelAssetPromotionService parallelAssetPromotionService;
+    private ExecutorService executorService;
+    private final List<ExecutorService> executorServices = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        PromotionProperties promotionProperties = new PromotionProperties();
+        promotionProperties.setChunkSize(2);
+        executorService = Executors.newFixedThreadPool(4);
+        assetPublisherService = mock(AssetPublisherService.class);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository);
+        parallelAssetPromotionService = new ParallelAssetPromotionService(assetRepositoryService, new AssetMapper(), assetPublisherService,
+                promotionProperties, transactionManager, executorService);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executorService.shutdownNow();
+        executorServices.forEach(ExecutorService::shutdownNow);
+        assetClosureRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    public void promoteNestedAssetsPromotesEveryLevelInChunks() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        for (int i = 0; i < 5; i++) {
+            UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+            assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build());
+        }
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).parentId(rootId).build());
+
+        int promoted = parallelAssetPromotionService.promoteNestedAssets(rootId);
+
+        assertEquals(10, promoted);
+        assertEquals(10, publishedPromotionEvents().size());
+        assertFalse(assetRepository.findById(rootId).orElseThrow().getPromoted());
+        assertTrue(assetRepository.findAll().stream().filter(assetEntity -> !rootId.equals(assetEntity.getId())).allMatch(AssetEntity::getPromoted));
+    }
+
+    @Test
+    public void promoteNestedAssetsPromotesChunksInTheOrderOfTheKeys() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        List<UUID> childIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            childIds.add(assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId());
+        }
+        ParallelAssetPromotionService singleWorkerPromotionService = singleWorkerPromotionService();
+
+        singleWorkerPromotionService.promoteNestedAssets(rootId);
+
+        childIds.sort(UniqueIdentifierOrder.COMPARATOR);
+        assertEquals(childIds, publishedPromotionEvents().stream().map(AssetPromotionEventModel::getAssetId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void promoteNestedAssetsAfterCommitPromotesOnTheWorkerPoolBeforeTheCommitReturns() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        for (int i = 0; i < 3; i++) {
+            UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+            assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build());
+        }
+        Set<Thread> promotingThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            promotingThreads.add(Thread.currentThread());
+            return null;
+        }).when(assetPublisherService).publishAssetsPromotedEvents(any(UUID.class), any());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> parallelAssetPromotionService.promoteNestedAssetsAfterCommit(rootId));
+
+        assertEquals(6, publishedPromotionEvents().size());
+        assertFalse(promotingThreads.contains(Thread.currentThread()));
+        assertTrue(assetRepository.findAll().stream().filter(assetEntity -> !rootId.equals(assetEntity.getId())).allMatch(AssetEntity::getPromoted));
+    }
+
+    @Test
+    public void promoteNestedAssetsAfterCommitFailsTheCommitWhenAChunkFails() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        UUID grandchildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build()).getId();
+        doThrow(new IllegalStateException("publishing failed")).when(assetPublisherService).publishAssetsPromotedEvents(any(UUID.class), any());
+
+        assertThrows(NestedAssetPromotionFailedException.class,
+                () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> parallelAssetPromotionService.promoteNestedAssetsAfterCommit(rootId)));
+
+        assertFalse(assetRepository.findById(childId).orElseThrow().getPromoted());
+        assertFalse(assetRepository.findById(grandchildId).orElseThrow().getPromoted());
+    }
+
+    @Test
+    public void concurrentPromotionsOfTheSameSubtreePublishEveryAssetOnce() throws InterruptedException {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        for (int i = 0; i < 4; i++) {
+            UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+            assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build());
+            assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build());
+        }
+        List<UUID> committedEventIds = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<AssetPromotionEventModel> events = invocation.getArgument(1);
+            // Events of a promotion that rolled back never leave the outbox.
+            TransactionUtils.runAfterCommit(() -> events.forEach(event -> committedEventIds.add(event.getAssetId())));
+            return null;
+        }).when(assetPublisherService).publishAssetsPromotedEvents(any(UUID.class), any());
+        AssetPromotionService assetPromotionService = new AssetPromotionService(assetRepositoryService, new AssetMapper(), assetPublisherService,
+                new PromotionProperties(), parallelAssetPromotionService, mock(PromotionJobService.class));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ExecutorService promotionThreads = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<UUID>>> promotions = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            promotions.add(promotionThreads.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> assetPromotionService.promoteAssetAndNestedAssets(rootId));
+            }));
+        }
+        start.countDown();
+        for (Future<List<UUID>> promotion : promotions) {
+            try {
+                promotion.get();
+            }
+            catch (ExecutionException e) {
+                // Gave up waiting for the other promotion's row locks and rolled back, which publishes nothing.
+            }
+        }
+        promotionThreads.shutdown();
+
+        assertEquals(13, committedEventIds.size());
+        assertEquals(Set.copyOf(assetRepository.findAll().stream().map(AssetEntity::getId).collect(Collectors.toList())), Set.copyOf(committedEventIds));
+        assertTrue(assetRepository.findAll().stream().allMatch(AssetEntity::getPromoted));
+    }
+
+    private ParallelAssetPromotionService singleWorkerPromotionService() {
+        ExecutorService singleWorker = Executors.newSingleThreadExecutor();
+        executorServices.add(singleWorker);
+        PromotionProperties promotionProperties = new PromotionProperties();
+        promotionProperties.setChunkSize(2);
+        return new ParallelAssetPromotionService(assetRepositoryService, new AssetMapper(), assetPublisherService, promotionProperties, transactionManager,
+                singleWorker);
+    }
+
+    private List<AssetPromotionEventModel> publishedPromotionEvents() {
+        ArgumentCaptor<List<AssetPromotionEventModel>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(assetPublisherService, Mockito.atLeast(0)).publishAssetsPromotedEvents(any(UUID.class), argumentCaptor.capture());
+        return argumentCaptor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
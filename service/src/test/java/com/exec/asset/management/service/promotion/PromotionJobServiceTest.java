@@ -0,0 +1,135 @@
+package com.exec.asset.management.service.promotion;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exec.asset.management.api.model.PromotionJobModel;
+import com.exec.asset.management.config.PromotionProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.domain.entities.PromotionJobEntity;
+import com.exec.asset.management.mapper.AssetMapper;
+import com.exec.asset.management.mapper.PromotionJobMapper;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.repository.PromotionJobRepository;
+import com.exec.asset.management.service.message.AssetPublisherService;
+import com.exec.asset.management.service.repository.AssetRepositoryService;
+import com.exec.asset.management.service.repository.AssetRepositoryServiceFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Jobs run their chunks in their own transactions, so the test data has to be committed instead of living in the
+ * usual rolled back test transaction. The executors run every task on the calling thread.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PromotionJobServiceTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PromotionJobRepository promotionJobRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private AssetRepositoryService assetRepositoryService;
+    private PromotionJobService promotionJobService;
+
+    @BeforeEach
+    void init() {
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository);
+        ParallelAssetPromotionService parallelAssetPromotionService = new ParallelAssetPromotionService(assetRepositoryService, new AssetMapper(),
+                mock(AssetPublisherService.class), new PromotionProperties(), transactionManager, Runnable::run);
+        promotionJobService = new PromotionJobService(promotionJobRepository, new PromotionJobMapper(), parallelAssetPromotionService, new PromotionProperties(),
+                transactionManager, Runnable::run);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        promotionJobRepository.deleteAll();
+        assetClosureRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    public void createJobPromotesNestedAssetsAndRecordsProgress() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).build()).getId();
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build());
+
+        UUID jobId = promotionJobService.createJob(rootId);
+        PromotionJobModel promotionJob = promotionJobService.getJobById(jobId);
+
+        assertEquals(PromotionJobModel.StatusEnum.COMPLETED, promotionJob.getStatus());
+        assertEquals(2L, promotionJob.getProcessedCount());
+        assertEquals(0L, promotionJob.getRemainingCount());
+        assertEquals(0L, promotionJob.getFailedCount());
+        assertTrue(assetRepository.findAll().stream().allMatch(AssetEntity::getPromoted));
+    }
+
+    @Test
+    public void resumeUnfinishedJobsPicksUpFromCheckpoint() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).build()).getId();
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).parentId(rootId).build());
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build());
+        UUID jobId = promotionJobRepository.save(PromotionJobEntity.builder()
+                .rootAssetId(rootId)
+                .status(PromotionJobEntity.Status.RUNNING)
+                .totalCount(2L)
+                .processedCount(1L)
+                .failedCount(0L)
+                .build()).getId();
+
+        promotionJobService.resumeUnfinishedJobs();
+        PromotionJobModel promotionJob = promotionJobService.getJobById(jobId);
+
+        assertEquals(PromotionJobModel.StatusEnum.COMPLETED, promotionJob.getStatus());
+        assertEquals(2L, promotionJob.getProcessedCount());
+        assertEquals(0L, promotionJob.getRemainingCount());
+        assertTrue(assetRepository.findAll().stream().allMatch(AssetEntity::getPromoted));
+    }
+
+    @Test
+    public void resumeUnfinishedJobsOnlyTakesOverJobsWhoseLeaseExpired() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).build()).getId();
+        UUID leasedChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        UUID otherRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(true).build()).getId();
+        assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(otherRootId).build());
+        UUID leasedJobId = promotionJobRepository.save(runningJob(rootId, Instant.now().plus(Duration.ofMinutes(1)))).getId();
+        UUID expiredJobId = promotionJobRepository.save(runningJob(otherRootId, Instant.now().minus(Duration.ofMinutes(1)))).getId();
+
+        promotionJobService.resumeUnfinishedJobs();
+
+        assertEquals(PromotionJobModel.StatusEnum.RUNNING, promotionJobService.getJobById(leasedJobId).getStatus());
+        assertEquals("other-instance", promotionJobRepository.findById(leasedJobId).orElseThrow().getOwner());
+        assertFalse(assetRepository.findById(leasedChildId).orElseThrow().getPromoted());
+        assertEquals(PromotionJobModel.StatusEnum.COMPLETED, promotionJobService.getJobById(expiredJobId).getStatus());
+        assertEquals(1L, promotionJobService.getJobById(expiredJobId).getProcessedCount());
+    }
+
+    private static PromotionJobEntity runningJob(UUID rootId, Instant leaseExpiresAt) {
+        return PromotionJobEntity.builder()
+                .rootAssetId(rootId)
+                .status(PromotionJobEntity.Status.RUNNING)
+                .totalCount(1L)
+                .processedCount(0L)
+                .failedCount(0L)
+                .owner("other-instance")
+                .leaseExpiresAt(leaseExpiresAt)
+                .build();
+    }
+}
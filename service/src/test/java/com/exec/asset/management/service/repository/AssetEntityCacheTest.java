@@ -0,0 +1,110 @@
+package com.exec.asset.management.service.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.exec.asset.management.config.AssetCacheProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetEntityCacheTest {
+    private final UUID parentId = UUID.randomUUID();
+    private final UUID childId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+    private Map<UUID, AssetEntity> database;
+    private SimpleMeterRegistry meterRegistry;
+    private AssetEntityCache assetEntityCache;
+
+    @BeforeEach
+    void init() {
+        database = Map.of(parentId, new AssetEntity(parentId, false, null), childId, new AssetEntity(childId, false, parentId));
+        meterRegistry = new SimpleMeterRegistry();
+        assetEntityCache = new AssetEntityCache(new AssetCacheProperties(), new MultiTenantIdentifierResolver(), meterRegistry);
+    }
+
+    @Test
+    public void repeatedReadsAreServedFromTheCache() {
+        AssetEntity first = assetEntityCache.getAsset(childId, loader()).orElseThrow();
+        AssetEntity second = assetEntityCache.getAsset(childId, loader()).orElseThrow();
+        second.setPromoted(true);
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertEquals(parentId, second.getParentId());
+        assertEquals(false, assetEntityCache.getAsset(childId, loader()).orElseThrow().getPromoted());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", AssetEntityCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void missingAssetsAreNotCached() {
+        UUID missingId = UUID.randomUUID();
+
+        assertTrue(assetEntityCache.getAsset(missingId, loader()).isEmpty());
+        assertTrue(assetEntityCache.getAsset(missingId, loader()).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void writesInvalidateCachedAssets() {
+        assetEntityCache.getAsset(parentId, loader());
+        assetEntityCache.getAsset(childId, loader());
+
+        assetEntityCache.invalidateAll(List.of(parentId));
+        assetEntityCache.getAsset(parentId, loader());
+        assetEntityCache.getAsset(childId, loader());
+        assertEquals(3, loads.get());
+
+        // The child of a deleted asset was given another parent.
+        assetEntityCache.invalidateDeleted(List.of(parentId));
+        assetEntityCache.getAsset(childId, loader());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void assetsInvalidatedDuringTheirLoadAreNotCached() {
+        Function<UUID, Optional<AssetEntity>> loaderRacingWithWriter = id -> {
+            // A writer commits while the reading transaction is still open, the cache is empty at that point.
+            assetEntityCache.invalidateAll(List.of(id));
+            return loader().apply(id);
+        };
+
+        assetEntityCache.getAsset(parentId, loaderRacingWithWriter);
+        assetEntityCache.getAsset(parentId, loader());
+        assertEquals(2, loads.get());
+
+        assetEntityCache.getAsset(parentId, loader());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void assetsLoadedDuringADeleteAreNotCached() {
+        Function<UUID, Optional<AssetEntity>> loaderRacingWithDelete = id -> {
+            assetEntityCache.invalidateDeleted(List.of(parentId));
+            return loader().apply(id);
+        };
+
+        assetEntityCache.getAsset(childId, loaderRacingWithDelete);
+        assetEntityCache.getAsset(childId, loader());
+        assertEquals(2, loads.get());
+    }
+
+    private Function<UUID, Optional<AssetEntity>> loader() {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(database.get(id));
+        };
+    }
+}
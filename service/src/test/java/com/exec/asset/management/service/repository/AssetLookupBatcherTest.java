@@ -0,0 +1,93 @@
+package com.exec.asset.management.service.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.exec.asset.management.config.LookupBatchingProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AssetLookupBatcherTest {
+    private AssetRepository assetRepository;
+    private LookupBatchingProperties lookupBatchingProperties;
+    private AssetLookupBatcher assetLookupBatcher;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void init() {
+        assetRepository = mock(AssetRepository.class);
+        when(assetRepository.findDetachedByIds(any())).thenAnswer(invocation -> ((Collection<UUID>) invocation.getArgument(0)).stream()
+                .filter(id -> id.getLeastSignificantBits() != 0)
+                .map(id -> new AssetEntity(id, false, null))
+                .collect(Collectors.toList()));
+        lookupBatchingProperties = new LookupBatchingProperties();
+        lookupBatchingProperties.setEnabled(true);
+        assetLookupBatcher = new AssetLookupBatcher(lookupBatchingProperties, assetRepository, new MultiTenantIdentifierResolver());
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentLookupsShareOneQuery() throws Exception {
+        // The batch is full with the fourth lookup, the window is long enough for all of them to join.
+        lookupBatchingProperties.setWindow(Duration.ofSeconds(30));
+        lookupBatchingProperties.setMaxBatchSize(4);
+        UUID sharedId = UUID.randomUUID();
+        UUID missingId = new UUID(1, 0);
+        List<UUID> ids = List.of(sharedId, sharedId, UUID.randomUUID(), missingId);
+
+        List<Future<Optional<AssetEntity>>> results = new ArrayList<>();
+        ids.forEach(id -> results.add(executor.submit(() -> assetLookupBatcher.findAssetById(id))));
+
+        for (int i = 0; i < ids.size(); i++) {
+            Optional<AssetEntity> result = results.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(ids.get(i) == missingId ? Optional.empty() : Optional.of(ids.get(i)), result.map(AssetEntity::getId));
+        }
+        assertNotSame(results.get(0).get().orElseThrow(), results.get(1).get().orElseThrow());
+        verify(assetRepository, times(1)).findDetachedByIds(any());
+    }
+
+    @Test
+    public void lookupRunsOnceTheWindowIsOver() {
+        lookupBatchingProperties.setWindow(Duration.ofMillis(1));
+        UUID id = UUID.randomUUID();
+
+        assertEquals(id, assetLookupBatcher.findAssetById(id).orElseThrow().getId());
+        assertEquals(id, assetLookupBatcher.findAssetById(id).orElseThrow().getId());
+        verify(assetRepository, times(2)).findDetachedByIds(any());
+    }
+
+    @Test
+    public void failedQueryFailsEveryLookup() {
+        when(assetRepository.findDetachedByIds(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> assetLookupBatcher.findAssetById(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.exec.asset.management.service.repository;
+
+import com.exec.asset.management.config.AssetCacheProperties;
+import com.exec.asset.management.config.LineageCacheProperties;
+import com.exec.asset.management.config.LookupBatchingProperties;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.hierarchy.AssetHierarchyIndexService;
+import com.exec.asset.management.service.hierarchy.AssetLineageCache;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds the asset repository service the way the application wires it, with default caches and lookup batching.
+ */
+public final class AssetRepositoryServiceFixture {
+
+    private AssetRepositoryServiceFixture() {
+    }
+
+    /**
+     * @return a service without a hierarchy index, hierarchy lookups go to the closure table.
+     */
+    public static AssetRepositoryService assetRepositoryService(AssetRepository assetRepository, AssetClosureRepository assetClosureRepository) {
+        return assetRepositoryService(assetRepository, assetClosureRepository, mock(AssetHierarchyIndexService.class));
+    }
+
+    public static AssetRepositoryService assetRepositoryService(AssetRepository assetRepository, AssetClosureRepository assetClosureRepository,
+            AssetHierarchyIndexService assetHierarchyIndexService) {
+        return assetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService,
+                new AssetEntityCache(new AssetCacheProperties(), new MultiTenantIdentifierResolver(), new SimpleMeterRegistry()));
+    }
+
+    public static AssetRepositoryService assetRepositoryService(AssetRepository assetRepository, AssetClosureRepository assetClosureRepository,
+            AssetHierarchyIndexService assetHierarchyIndexService, AssetEntityCache assetEntityCache) {
+        MultiTenantIdentifierResolver multiTenantIdentifierResolver = new MultiTenantIdentifierResolver();
+        return new AssetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService,
+                new AssetLineageCache(new LineageCacheProperties(), multiTenantIdentifierResolver), assetEntityCache,
+                new AssetLookupBatcher(new LookupBatchingProperties(), assetRepository, multiTenantIdentifierResolver));
+    }
+}
@@ -0,0 +1,174 @@
+package com.exec.asset.management.service.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.exec.asset.management.config.AssetCacheProperties;
+import com.exec.asset.management.config.HierarchyIndexProperties;
+import com.exec.asset.management.domain.entities.AssetEntity;
+import com.exec.asset.management.exception.AssetDoesNotExistException;
+import com.exec.asset.management.exception.AssetHierarchyCycleException;
+import com.exec.asset.management.repository.AssetClosureRepository;
+import com.exec.asset.management.repository.AssetRepository;
+import com.exec.asset.management.service.hierarchy.AssetHierarchyIndexService;
+import com.exec.asset.management.util.MultiTenantIdentifierResolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class AssetRepositoryServiceTest {
+    @Autowired
+    private AssetRepository assetRepository;
+    @Autowired
+    private AssetClosureRepository assetClosureRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private HierarchyIndexProperties hierarchyIndexProperties;
+    private AssetHierarchyIndexService assetHierarchyIndexService;
+    private AssetRepositoryService assetRepositoryService;
+
+    @BeforeEach
+    void init() {
+        hierarchyIndexProperties = new HierarchyIndexProperties();
+        assetHierarchyIndexService = new AssetHierarchyIndexService(hierarchyIndexProperties, assetRepository, new MultiTenantIdentifierResolver(), transactionManager);
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService);
+    }
+
+    @Test
+    public void saveAssetIndexesAncestorsAndDescendants() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        UUID grandChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build()).getId();
+
+        assertEquals(List.of(rootId, childId, grandChildId), assetRepositoryService.getDescendantIds(rootId, Integer.MAX_VALUE));
+        assertEquals(List.of(rootId, childId), assetRepositoryService.getDescendantIds(rootId, 1));
+        assertEquals(List.of(childId, rootId), assetRepositoryService.getAncestorIds(grandChildId));
+    }
+
+    @Test
+    public void saveAssetWithNewParentMovesSubtree() {
+        UUID firstRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID secondRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        AssetEntity child = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(firstRootId).build());
+        UUID grandChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(child.getId()).build()).getId();
+
+        child.setParentId(secondRootId);
+        assetRepositoryService.saveAsset(child);
+
+        assertEquals(List.of(firstRootId), assetRepositoryService.getDescendantIds(firstRootId, Integer.MAX_VALUE));
+        assertEquals(List.of(secondRootId, child.getId(), grandChildId), assetRepositoryService.getDescendantIds(secondRootId, Integer.MAX_VALUE));
+        assertEquals(List.of(child.getId(), secondRootId), assetRepositoryService.getAncestorIds(grandChildId));
+    }
+
+    @Test
+    public void deleteAssetLinksDescendantsToAncestors() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        UUID grandChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build()).getId();
+
+        assetRepositoryService.deleteAsset(childId);
+
+        assertEquals(List.of(rootId, grandChildId), assetRepositoryService.getDescendantIds(rootId, 1));
+        assertEquals(List.of(rootId), assetRepositoryService.getAncestorIds(grandChildId));
+        assertTrue(assetClosureRepository.findByDescendantIdAndDepthLessThanEqual(childId, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void deleteAssetsLinksChildrenToNearestRemainingAncestor() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(rootId).build()).getId();
+        UUID grandChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(childId).build()).getId();
+        UUID firstLeafId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(grandChildId).build()).getId();
+        UUID secondLeafId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(grandChildId).build()).getId();
+        UUID otherRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID otherChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(otherRootId).build()).getId();
+
+        assertEquals(3, assetRepositoryService.deleteAssets(List.of(childId, grandChildId, otherRootId, UUID.randomUUID())));
+
+        assertEquals(rootId, assetRepository.findById(firstLeafId).orElseThrow().getParentId());
+        assertEquals(rootId, assetRepository.findById(secondLeafId).orElseThrow().getParentId());
+        assertNull(assetRepository.findById(otherChildId).orElseThrow().getParentId());
+        assertEquals(Set.of(rootId, firstLeafId, secondLeafId), Set.copyOf(assetRepositoryService.getDescendantIds(rootId, Integer.MAX_VALUE)));
+        assertEquals(List.of(rootId), assetRepositoryService.getAncestorIds(firstLeafId));
+        assertTrue(assetRepositoryService.getAncestorIds(otherChildId).isEmpty());
+        assertTrue(assetClosureRepository.findByDescendantIdAndDepthLessThanEqual(grandChildId, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void saveAssetBelowItsOwnDescendantIsRejected() {
+        AssetEntity root = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build());
+        UUID childId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(root.getId()).build()).getId();
+
+        root.setParentId(childId);
+
+        assertThrows(AssetHierarchyCycleException.class, () -> assetRepositoryService.saveAsset(root));
+    }
+
+    @Test
+    public void getAncestorsFollowsMovesAndDeletes() {
+        UUID firstRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID secondRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        AssetEntity child = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(firstRootId).build());
+        UUID grandChildId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).parentId(child.getId()).build()).getId();
+
+        assertEquals(List.of(child.getId(), firstRootId), ancestorIds(grandChildId));
+
+        child.setParentId(secondRootId);
+        assetRepositoryService.saveAsset(child);
+        assertEquals(List.of(child.getId(), secondRootId), ancestorIds(grandChildId));
+
+        assetRepositoryService.promoteAssets(List.of(secondRootId));
+        assertTrue(assetRepositoryService.getAncestors(grandChildId).get(1).getPromoted());
+
+        assetRepositoryService.deleteAsset(child.getId());
+        assertEquals(List.of(secondRootId), ancestorIds(grandChildId));
+        assertTrue(assetRepositoryService.getAncestors(secondRootId).isEmpty());
+        assertThrows(AssetDoesNotExistException.class, () -> assetRepositoryService.getAncestors(child.getId()));
+    }
+
+    @Test
+    public void writesOfOutdatedAssetsAreRejected() {
+        UUID rootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        UUID otherRootId = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        AssetEntity outdated = assetRepository.findDetachedByIds(List.of(rootId)).get(0);
+
+        assetRepositoryService.promoteAssets(List.of(rootId));
+        assertEquals(outdated.getVersion() + 1, assetRepository.findById(rootId).orElseThrow().getVersion());
+
+        outdated.setParentId(otherRootId);
+        assertThrows(OptimisticLockingFailureException.class, () -> assetRepositoryService.saveAsset(outdated));
+        assertNull(assetRepository.findById(rootId).orElseThrow().getParentId());
+    }
+
+    @Test
+    public void findAssetByIdOutsideOfReadOnlyTransactionsBypassesTheCache() {
+        AssetEntityCache assetEntityCache = new AssetEntityCache(new AssetCacheProperties(), new MultiTenantIdentifierResolver(), new SimpleMeterRegistry());
+        assetRepositoryService = AssetRepositoryServiceFixture.assetRepositoryService(assetRepository, assetClosureRepository, assetHierarchyIndexService, assetEntityCache);
+        UUID id = assetRepositoryService.saveAsset(AssetEntity.builder().promoted(false).build()).getId();
+        // Cached by an earlier request before another instance changed the asset, a thread without a transaction caches right away.
+        CompletableFuture.runAsync(() -> assetEntityCache.getAsset(id, assetId -> Optional.of(new AssetEntity(assetId, true, null)))).join();
+
+        assertEquals(false, assetRepositoryService.findAssetById(id).orElseThrow().getPromoted());
+        assertEquals(true, assetEntityCache.getAsset(id, assetId -> Optional.empty()).orElseThrow().getPromoted());
+    }
+
+    private List<UUID> ancestorIds(UUID id) {
+        return assetRepositoryService.getAncestors(id).stream().map(AssetEntity::getId).collect(Collectors.toList());
+    }
+}
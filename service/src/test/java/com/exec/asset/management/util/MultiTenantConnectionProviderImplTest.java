@@ -1,11 +1,15 @@
 package com.exec.asset.management.util;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -44,4 +48,28 @@ public class MultiTenantConnectionProviderImplTest {
         multiTenantConnectionProvider = new MultiTenantConnectionProviderImpl(dataSourceMap);
         assertThrows(IllegalStateException.class, () -> multiTenantConnectionProvider.selectDataSource("test"));
     }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() throws SQLException {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        multiTenantConnectionProvider = new MultiTenantConnectionProviderImpl(Map.of("test-tenant", primary, "other-tenant", primary),
+                Map.of("test-tenant", replica));
+
+        assertTrue(connectionUrl("test-tenant").contains("primary"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertTrue(connectionUrl("test-tenant").contains("replica"));
+            assertTrue(connectionUrl("other-tenant").contains("primary"));
+        }
+        finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private String connectionUrl(String tenantIdentifier) throws SQLException {
+        try (Connection connection = multiTenantConnectionProvider.getConnection(tenantIdentifier)) {
+            return connection.getMetaData().getURL();
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UniqueIdentifierOrderTest {
+
+    @Test
+    public void idsSortLikeSqlServerUniqueIdentifiers() {
+        // In ascending order as SQL Server returns them from ORDER BY on a uniqueidentifier column.
+        List<UUID> expected = Stream.of(
+                "01000000-0000-0000-0000-000000000000",
+                "ff000000-0000-0000-0000-000000000000",
+                "00000001-0000-0000-0000-000000000000",
+                "00000000-0100-0000-0000-000000000000",
+                "00000000-0001-0000-0000-000000000000",
+                "00000000-0000-0100-0000-000000000000",
+                "00000000-0000-0001-0000-000000000000",
+                "00000000-0000-0000-0001-000000000000",
+                "00000000-0000-0000-0100-000000000000",
+                "00000000-0000-0000-0000-000000000001",
+                "00000000-0000-0000-0000-010000000000",
+                "ffffffff-ffff-ffff-ffff-ffffffffffff")
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
+        List<UUID> sorted = new ArrayList<>(expected);
+        Collections.shuffle(sorted);
+
+        sorted.sort(UniqueIdentifierOrder.COMPARATOR);
+
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    public void combIdsSortByCreationTime() throws InterruptedException {
+        UUID first = UuidStrategy.COMB.generate();
+        Thread.sleep(2);
+        UUID second = UuidStrategy.COMB.generate();
+
+        assertTrue(UniqueIdentifierOrder.COMPARATOR.compare(first, second) < 0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.exec.asset.management.util.uuid;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UuidStrategyTest {
+
+    @Test
+    public void generatedIdsAreUniqueAndWellFormed() {
+        for (UuidStrategy strategy : UuidStrategy.values()) {
+            Set<UUID> ids = new HashSet<>();
+            for (int i = 0; i < 10000; i++) {
+                UUID id = strategy.generate();
+                assertEquals(2, id.variant());
+                assertEquals(strategy == UuidStrategy.TIME_ORDERED ? 7 : 4, id.version());
+                assertTrue(ids.add(id));
+                assertEquals(id, UUID.fromString(id.toString()));
+            }
+        }
+    }
+
+    @Test
+    public void timeOrderedIdsStartWithTheCreationTime() throws InterruptedException {
+        long before = System.currentTimeMillis();
+        UUID first = UuidStrategy.TIME_ORDERED.generate();
+        Thread.sleep(2);
+        UUID second = UuidStrategy.TIME_ORDERED.generate();
+
+        assertTrue(first.getMostSignificantBits() >>> 16 >= before);
+        assertTrue(first.toString().compareTo(second.toString()) < 0);
+    }
+
+    @Test
+    public void combIdsEndWithTheCreationTime() throws InterruptedException {
+        long before = System.currentTimeMillis();
+        UUID first = UuidStrategy.COMB.generate();
+        Thread.sleep(2);
+        UUID second = UuidStrategy.COMB.generate();
+
+        long firstTime = first.getLeastSignificantBits() & 0xFFFF_FFFF_FFFFL;
+        assertTrue(firstTime >= before);
+        assertTrue(firstTime < (second.getLeastSignificantBits() & 0xFFFF_FFFF_FFFFL));
+    }
+}